@@ -0,0 +1,159 @@
+package bench;
+
+import model.Customer;
+import model.EpochDays;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.CustomerService;
+import service.ReservationService;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// JMH benchmarks for the service hot paths; build and run with
+//
+//   mvn -Pjmh package
+//   java -jar target/benchmarks.jar bench.ServiceBenchmark -p rooms=100,1000,10000,100000
+//
+// The services are singletons, so every benchmark runs in its own fork, on a hotel set up
+// from scratch. Each room is booked three nights in every six over the next year, plus a
+// history of past stays. The booking benchmark takes a free gap and cancels it again, so
+// the calendars look the same on every call; the conflict path has its own benchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+    // future stays: nights [6k, 6k + 3) after today are booked, [6k + 3, 6k + 6) are free
+    private static final int CYCLE = 6;
+    private static final int CYCLES = 60;
+
+    @Param({"1000"})
+    public int rooms;
+
+    // past stays, back to back before today
+    @Param({"100000"})
+    public int reservations;
+
+    private final CustomerService customerService = CustomerService.getInstance();
+    private final ReservationService reservationService = ReservationService.getInstance();
+    private final PrintStream console = System.out;
+    private IRoom[] inventory;
+    private Customer[] customers;
+    // today + i
+    private Date[] days;
+    private long nextCustomer;
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Setup(Level.Trial)
+    public void populate() {
+        // the services report booking conflicts on stdout; keep that out of the results
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        int today = EpochDays.today();
+        days = new Date[CYCLE * CYCLES + CYCLE];
+        for (int i = 0; i < days.length; i++) days[i] = EpochDays.toDate(today + i);
+
+        customers = new Customer[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerService.registerCustomer("customer" + i + "@example.com", "Customer", String.valueOf(i));
+            customers[i] = customerService.fetchCustomer("customer" + i + "@example.com");
+        }
+        inventory = new IRoom[rooms];
+        for (int i = 0; i < rooms; i++) {
+            inventory[i] = new Room("B" + i, i % 10 == 0 ? 0.0 : 50.0 + i % 200,
+                    i % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE);
+            reservationService.registerRoom(inventory[i]);
+        }
+
+        int perRoom = (reservations + rooms - 1) / rooms;
+        int booked = 0;
+        for (int stay = perRoom; stay > 0 && booked < reservations; stay--) {
+            Date checkIn = EpochDays.toDate(today - 2 * stay);
+            Date checkOut = EpochDays.toDate(today - 2 * stay + 1);
+            for (int r = 0; r < rooms && booked < reservations; r++, booked++) {
+                reservationService.bookRoomForCustomer(customers[booked % CUSTOMERS], inventory[r], checkIn, checkOut);
+            }
+        }
+        for (int r = 0; r < rooms; r++) {
+            for (int k = 0; k < CYCLES; k++) {
+                reservationService.bookRoomForCustomer(customers[(r + k) % CUSTOMERS], inventory[r],
+                        days[CYCLE * k], days[CYCLE * k + 3]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreConsole() {
+        System.setOut(console);
+    }
+
+    // books a free gap, then cancels it so the next call finds the same calendars
+    @Benchmark
+    public Reservation bookRoomForCustomer(ThreadRandom state) {
+        SplittableRandom random = state.random;
+        Customer customer = customers[random.nextInt(CUSTOMERS)];
+        IRoom room = inventory[random.nextInt(rooms)];
+        int checkIn = CYCLE * random.nextInt(CYCLES) + 3;
+        Reservation res = reservationService.bookRoomForCustomer(customer, room, days[checkIn], days[checkIn + 3]);
+        if (res != null) reservationService.cancelReservation(customer, room, days[checkIn]);
+        return res;
+    }
+
+    @Benchmark
+    public Reservation bookTakenRoom(ThreadRandom state) {
+        SplittableRandom random = state.random;
+        int checkIn = CYCLE * random.nextInt(CYCLES) + 1;
+        return reservationService.bookRoomForCustomer(customers[random.nextInt(CUSTOMERS)],
+                inventory[random.nextInt(rooms)], days[checkIn], days[checkIn + 1]);
+    }
+
+    @Benchmark
+    public Collection<IRoom> searchRoomsForDisplay(ThreadRandom state) {
+        int checkIn = state.random.nextInt(CYCLE * CYCLES);
+        return reservationService.searchRoomsForDisplay(days[checkIn], days[checkIn + 2], null);
+    }
+
+    @Benchmark
+    public Map<IRoom, Date[]> findRecommendedRoomsWithDates(ThreadRandom state) {
+        int checkIn = CYCLE * state.random.nextInt(CYCLES - 3);
+        return reservationService.findRecommendedRoomsWithDates(days[checkIn], days[checkIn + 3], 7, null);
+    }
+
+    @Benchmark
+    public Collection<Reservation> fetchReservationsForCustomer(ThreadRandom state) {
+        return reservationService.fetchReservationsForCustomer(customers[state.random.nextInt(CUSTOMERS)]);
+    }
+
+    @Benchmark
+    public boolean registerCustomer() {
+        return customerService.registerCustomer("bench" + nextCustomer++ + "@example.com", "Bench", "User");
+    }
+}
@@ -1,11 +1,59 @@
+import api.BatchRunner;
+import api.HotelHttpServer;
+import service.CustomerService;
+import service.ReservationJournal;
 import service.ReservationService;
+import service.ReservationSnapshot;
 import model.Room;
 import model.RoomType;
 import ui.MainMenu;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
 public class HotelReservation {
-    public static void main(String[] args) {
+    // java HotelReservation                                   - console menus
+    // java HotelReservation --batch <commands> [<results>]    - run a command file, see api.BatchRunner
+    public static void main(String[] args) throws IOException {
+        Path batchFile = null;
+        Path resultFile = null;
+        if (args.length > 0) {
+            if (!args[0].equals("--batch") || args.length < 2 || args.length > 3) {
+                System.out.println("Usage: HotelReservation [--batch <command file> [<result file>]]");
+                return;
+            }
+            batchFile = Paths.get(args[1]);
+            resultFile = Paths.get(args.length == 3 ? args[2] : args[1] + ".out");
+        }
+
+        CustomerService cs = CustomerService.getInstance();
         ReservationService rs = ReservationService.getInstance();
+
+        // restore earlier sessions: the last snapshot, then whatever the journal saw after it
+        Path snapshotFile = Paths.get(System.getProperty("hotel.snapshot", "hotel-reservations.snapshot"));
+        Path journalFile = Paths.get(System.getProperty("hotel.journal", "hotel-reservations.journal"));
+        ReservationJournal.DurabilityMode durability = ReservationJournal.DurabilityMode.valueOf(
+                System.getProperty("hotel.durability", "GROUP").toUpperCase());
+        ReservationSnapshot.load(snapshotFile, cs, rs);
+        ReservationJournal journal = ReservationJournal.open(journalFile, durability);
+        journal.replay(cs, rs);
+        cs.setJournal(journal);
+        rs.setJournal(journal);
+        rs.setBookingMode(ReservationService.BookingMode.valueOf(
+                System.getProperty("hotel.booking", "STRIPED_LOCKS").toUpperCase()));
+        // move ended stays out of the hot path, at start-up and then every hotel.compaction.minutes
+        rs.startCompaction(Long.getLong("hotel.compaction.minutes", 60), TimeUnit.MINUTES);
+
+        if (batchFile != null) {
+            // the command file is the whole session: no sample rooms, no menus
+            System.out.println(BatchRunner.run(batchFile, resultFile));
+            System.out.println("Results written to " + resultFile);
+            shutdown(cs, rs, journal, snapshotFile);
+            return;
+        }
+
         // preload sample rooms
         rs.registerRoom(new Room("101", 100.0, RoomType.SINGLE));
         rs.registerRoom(new Room("102", 200.0, RoomType.DOUBLE));
@@ -14,6 +62,30 @@ public class HotelReservation {
         rs.registerRoom(new Room("108", 0.0, RoomType.SINGLE));
 
 
+        // optional HTTP/JSON front-end next to the console, e.g. -Dhotel.http.port=8080
+        HotelHttpServer httpServer = null;
+        String httpPort = System.getProperty("hotel.http.port");
+        if (httpPort != null) {
+            httpServer = HotelHttpServer.start(Integer.parseInt(httpPort));
+            System.out.println("HTTP API listening on port " + httpServer.getPort());
+        }
+
         MainMenu.display();
+        if (httpServer != null) httpServer.stop();
+        shutdown(cs, rs, journal, snapshotFile);
+    }
+
+    private static void shutdown(CustomerService cs, ReservationService rs, ReservationJournal journal,
+                                 Path snapshotFile) throws IOException {
+        rs.stopCompaction();
+        // let the pipeline finish the bookings in its ring so the snapshot holds them all
+        if (rs.getBookingMode() == ReservationService.BookingMode.PIPELINE) {
+            rs.setBookingMode(ReservationService.BookingMode.STRIPED_LOCKS);
+        }
+
+        // checkpoint on a clean exit so the next start loads one snapshot instead of a long replay
+        ReservationSnapshot.write(snapshotFile, cs, rs);
+        journal.truncate();
+        journal.close();
     }
 }
@@ -1,74 +1,267 @@
 package api;
 
+import metrics.HotelMetrics;
+import metrics.Operation;
 import model.Customer;
 import model.IRoom;
+import model.OccupancyReport;
+import model.Page;
+import model.Property;
+import model.RevenueReport;
+import model.RoomType;
 import service.CustomerService;
+import service.PropertyService;
 import service.ReservationService;
 
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class AdminResource {
 
-    private static AdminResource adminResourceInstance = null;
+    private static final AdminResource adminResourceInstance = new AdminResource();
     private static final CustomerService customerService = CustomerService.getInstance();
     private static final ReservationService reservationService = ReservationService.getInstance();
+    private static final PropertyService propertyService = PropertyService.getInstance();
+    private static final HotelMetrics metrics = HotelMetrics.getInstance();
 
     private AdminResource() {}
 
     public static AdminResource getInstance() {
-        if (adminResourceInstance == null) adminResourceInstance = new AdminResource();
         return adminResourceInstance;
     }
 
     public Customer retrieveCustomer(String email) {
-        return customerService.fetchCustomer(email);
+        long start = System.nanoTime();
+        try {
+            return customerService.fetchCustomer(email);
+        } finally {
+            metrics.recordLatency(Operation.RETRIEVE_CUSTOMER, start);
+        }
     }
 
     public void addRooms(List<IRoom> rooms) {
-        for (IRoom r : rooms) reservationService.registerRoom(r);
+        long start = System.nanoTime();
+        try {
+            for (IRoom r : rooms) reservationService.registerRoom(r);
+        } finally {
+            metrics.recordLatency(Operation.ADD_ROOMS, start);
+        }
     }
 
     public Collection<IRoom> listRooms() {
-        return reservationService.listAllRooms();
+        long start = System.nanoTime();
+        try {
+            return reservationService.listAllRooms();
+        } finally {
+            metrics.recordLatency(Operation.LIST_ROOMS, start);
+        }
     }
 
     public Collection<Customer> listCustomers() {
-        return customerService.listAllCustomers();
+        long start = System.nanoTime();
+        try {
+            return customerService.listAllCustomers();
+        } finally {
+            metrics.recordLatency(Operation.LIST_CUSTOMERS, start);
+        }
+    }
+
+    // rooms in number order, a page at a time; null cursor for the first page
+    public Page<IRoom> listRoomsPage(String cursor, int pageSize) {
+        long start = System.nanoTime();
+        try {
+            return reservationService.listRoomsPage(cursor, pageSize);
+        } finally {
+            metrics.recordLatency(Operation.LIST_ROOMS_PAGE, start);
+        }
+    }
+
+    // customers in email order, a page at a time; null cursor for the first page
+    public Page<Customer> listCustomersPage(String cursor, int pageSize) {
+        long start = System.nanoTime();
+        try {
+            return customerService.listCustomersPage(cursor, pageSize);
+        } finally {
+            metrics.recordLatency(Operation.LIST_CUSTOMERS_PAGE, start);
+        }
+    }
+
+    public Stream<IRoom> streamRooms() {
+        long start = System.nanoTime();
+        try {
+            return reservationService.streamAllRooms();
+        } finally {
+            metrics.recordLatency(Operation.STREAM_ROOMS, start);
+        }
+    }
+
+    public Stream<Customer> streamCustomers() {
+        long start = System.nanoTime();
+        try {
+            return customerService.streamAllCustomers();
+        } finally {
+            metrics.recordLatency(Operation.STREAM_CUSTOMERS, start);
+        }
     }
 
     public void displayReservations() {
-        reservationService.showAllReservations();
+        long start = System.nanoTime();
+        try {
+            reservationService.showAllReservations();
+        } finally {
+            metrics.recordLatency(Operation.DISPLAY_RESERVATIONS, start);
+        }
+    }
+
+    // archives stays that have ended now instead of waiting for the background run
+    public int compactReservations() {
+        long start = System.nanoTime();
+        try {
+            return reservationService.compact();
+        } finally {
+            metrics.recordLatency(Operation.COMPACT_RESERVATIONS, start);
+        }
+    }
+
+    public String getReservationSummary() {
+        long start = System.nanoTime();
+        try {
+            return "Active reservations: " + reservationService.getActiveReservationCount()
+                    + " in " + reservationService.getReservationPartitionCount() + " monthly partitions"
+                    + ", archived: " + reservationService.getArchivedReservationCount();
+        } finally {
+            metrics.recordLatency(Operation.RESERVATION_SUMMARY, start);
+        }
     }
+
+    // occupancy of the nights [from, to) for the room type, or all rooms for null
+    public OccupancyReport getOccupancyReport(Date from, Date to, RoomType type) {
+        long start = System.nanoTime();
+        try {
+            return reservationService.getOccupancyReport(from, to, type);
+        } finally {
+            metrics.recordLatency(Operation.OCCUPANCY_REPORT, start);
+        }
+    }
+
+    public int getOccupiedRooms(Date night, RoomType type) {
+        long start = System.nanoTime();
+        try {
+            return reservationService.getOccupiedRooms(night, type);
+        } finally {
+            metrics.recordLatency(Operation.OCCUPIED_ROOMS, start);
+        }
+    }
+
+    // revenue of the nights [from, to) for the room type, or all rooms for null
+    public RevenueReport getRevenueReport(Date from, Date to, RoomType type) {
+        long start = System.nanoTime();
+        try {
+            return reservationService.getRevenueReport(from, to, type);
+        } finally {
+            metrics.recordLatency(Operation.REVENUE_REPORT, start);
+        }
+    }
+
+    // in cents; 0 for an unknown customer
+    public long getCustomerRevenueCents(String email) {
+        long start = System.nanoTime();
+        try {
+            return reservationService.getCustomerRevenueCents(customerService.fetchCustomer(email));
+        } finally {
+            metrics.recordLatency(Operation.CUSTOMER_REVENUE, start);
+        }
+    }
+
+    // false if the id is taken
+    public boolean addProperty(String id, String name, String city) {
+        long start = System.nanoTime();
+        try {
+            return propertyService.addProperty(new Property(id, name, city));
+        } finally {
+            metrics.recordLatency(Operation.ADD_PROPERTY, start);
+        }
+    }
+
+    // number of rooms added; rooms whose number the property already has are skipped
+    public int addRoomsToProperty(String propertyId, List<IRoom> rooms) {
+        long start = System.nanoTime();
+        try {
+            Integer added = propertyService.addRooms(propertyId, rooms).join();
+            return added == null ? 0 : added;
+        } finally {
+            metrics.recordLatency(Operation.ADD_PROPERTY_ROOMS, start);
+        }
+    }
+
+    public Property getProperty(String id) {
+        long start = System.nanoTime();
+        try {
+            return propertyService.getProperty(id);
+        } finally {
+            metrics.recordLatency(Operation.GET_PROPERTY, start);
+        }
+    }
+
+    public Collection<Property> listProperties() {
+        long start = System.nanoTime();
+        try {
+            return propertyService.listProperties();
+        } finally {
+            metrics.recordLatency(Operation.LIST_PROPERTIES, start);
+        }
+    }
+
     public IRoom getRoomNumber(String roomNumber) {
-        return reservationService.fetchRoomByNumber(roomNumber);
+        long start = System.nanoTime();
+        try {
+            return reservationService.fetchRoomByNumber(roomNumber);
+        } finally {
+            metrics.recordLatency(Operation.GET_ROOM_NUMBER, start);
+        }
     }
 
     public void populateTestData() {
-        customerService.registerCustomer("liam@gmail.com", "Liam", "Carter");
-        customerService.registerCustomer("ethan@gmail.com", "Ethan", "Harris");
-
-        reservationService.registerRoom(new model.Room("101", 100.0, model.RoomType.SINGLE));
-        reservationService.registerRoom(new model.Room("102", 200.0, model.RoomType.DOUBLE));
-        reservationService.registerRoom(new model.Room("103", 150.0, model.RoomType.SINGLE));
-        reservationService.registerRoom(new model.Room("105", 0.0, model.RoomType.SINGLE));
-        reservationService.registerRoom(new model.Room("108", 0.0, model.RoomType.SINGLE));
-        reservationService.registerRoom(new model.Room("201", 100.01, model.RoomType.SINGLE));
-        reservationService.registerRoom(new model.Room("202", 200.0, model.RoomType.DOUBLE));
-        reservationService.registerRoom(new model.FreeRoom("203", model.RoomType.SINGLE));
-
-        // one demo reservation
-        Customer c = customerService.fetchCustomer("liam@gmail.com");
-        IRoom r = reservationService.fetchRoomByNumber("201");
-        if (c != null && r != null) {
-            Calendar cal = Calendar.getInstance();
-            cal.set(2025, Calendar.NOVEMBER, 20, 0, 0, 0);
-            Date in = cal.getTime();
-            cal.set(2025, Calendar.NOVEMBER, 22, 0, 0, 0);
-            Date out = cal.getTime();
-            reservationService.bookRoomForCustomer(c, r, in, out);
+        long start = System.nanoTime();
+        try {
+            customerService.registerCustomer("liam@gmail.com", "Liam", "Carter");
+            customerService.registerCustomer("ethan@gmail.com", "Ethan", "Harris");
+
+            reservationService.registerRoom(new model.Room("101", 100.0, model.RoomType.SINGLE));
+            reservationService.registerRoom(new model.Room("102", 200.0, model.RoomType.DOUBLE));
+            reservationService.registerRoom(new model.Room("103", 150.0, model.RoomType.SINGLE));
+            reservationService.registerRoom(new model.Room("105", 0.0, model.RoomType.SINGLE));
+            reservationService.registerRoom(new model.Room("108", 0.0, model.RoomType.SINGLE));
+            reservationService.registerRoom(new model.Room("201", 100.01, model.RoomType.SINGLE));
+            reservationService.registerRoom(new model.Room("202", 200.0, model.RoomType.DOUBLE));
+            reservationService.registerRoom(new model.FreeRoom("203", model.RoomType.SINGLE));
+
+            // one demo reservation
+            Customer c = customerService.fetchCustomer("liam@gmail.com");
+            IRoom r = reservationService.fetchRoomByNumber("201");
+            if (c != null && r != null) {
+                Calendar cal = Calendar.getInstance();
+                cal.set(2025, Calendar.NOVEMBER, 20, 0, 0, 0);
+                Date in = cal.getTime();
+                cal.set(2025, Calendar.NOVEMBER, 22, 0, 0, 0);
+                Date out = cal.getTime();
+                reservationService.bookRoomForCustomer(c, r, in, out);
+            }
+        } finally {
+            metrics.recordLatency(Operation.POPULATE_TEST_DATA, start);
         }
     }
+
+    // p50/p99/p999 latency per API call plus booking and search counters
+    public String getMetricsReport() {
+        return metrics.report();
+    }
+
+    // the same data as JSON, for scraping or offline analysis
+    public String getMetricsJson() {
+        return metrics.toJson();
+    }
 }
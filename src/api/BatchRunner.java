@@ -0,0 +1,257 @@
+package api;
+
+import model.EpochDays;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+// Runs a command file through HotelResource/AdminResource without the menus, one command
+// per line with comma-separated fields:
+//
+//   customer,<email>,<first name>,<last name>
+//   room,<number>,<price>,<SINGLE|DOUBLE>
+//   reserve,<email>,<room number>,<check-in yyyy-MM-dd>,<check-out yyyy-MM-dd>
+//   search,<check-in yyyy-MM-dd>,<check-out yyyy-MM-dd>[,free|paid]
+//
+// Blank lines and lines starting with # are skipped. Every command gets one line in the
+// output: its line number, then OK and the result, or ERROR and why.
+//
+// The file is read through one reused buffer and parsed in place: dates and prices come
+// straight off the bytes, and only the strings the services keep (emails, names, room
+// numbers) are ever created.
+public class BatchRunner {
+
+    // a line must fit in the buffer
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_FIELDS = 8;
+    // Dates of recently used days, direct-mapped by day
+    private static final int DATE_CACHE = 1 << 12;
+
+    private final HotelResource hotel = HotelResource.getInstance();
+    private final AdminResource admin = AdminResource.getInstance();
+    // [from, to) of each field of the current line
+    private final int[] fieldFrom = new int[MAX_FIELDS];
+    private final int[] fieldTo = new int[MAX_FIELDS];
+    private final int[] cachedDays = new int[DATE_CACHE];
+    private final Date[] cachedDates = new Date[DATE_CACHE];
+    private final StringBuilder line = new StringBuilder();
+    private long commands;
+    private long failed;
+
+    private BatchRunner() {}
+
+    // Runs every command in the file and writes the results to output. The services' own
+    // console messages are silenced meanwhile; every outcome is in the output. Returns a
+    // one-line summary.
+    public static String run(Path commandFile, Path outputFile) throws IOException {
+        BatchRunner runner = new BatchRunner();
+        PrintStream console = System.out;
+        long start = System.nanoTime();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (FileChannel in = FileChannel.open(commandFile, StandardOpenOption.READ);
+             BufferedWriter out = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+            runner.runAll(in, out);
+        } finally {
+            System.setOut(console);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return String.format("%d commands, %d failed, in %.2f s (%.0f commands/s)",
+                runner.commands, runner.failed, seconds, runner.commands / Math.max(seconds, 1e-9));
+    }
+
+    private void runAll(FileChannel in, BufferedWriter out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        long lineNumber = 0;
+        while (true) {
+            int carried = buffer.position();
+            boolean eof = in.read(buffer) < 0;
+            int end = buffer.position();
+            int lineStart = 0;
+            for (int i = carried; i < end; i++) {
+                if (bytes[i] != '\n') continue;
+                execute(bytes, lineStart, i, ++lineNumber, out);
+                lineStart = i + 1;
+            }
+            if (eof) {
+                if (lineStart < end) execute(bytes, lineStart, end, ++lineNumber, out);
+                return;
+            }
+            if (lineStart == 0 && end == bytes.length) {
+                throw new IOException("Line " + (lineNumber + 1) + " is longer than " + BUFFER_SIZE + " bytes");
+            }
+            // keep the unfinished line for the next read
+            System.arraycopy(bytes, lineStart, bytes, 0, end - lineStart);
+            buffer.position(end - lineStart);
+        }
+    }
+
+    private void execute(byte[] bytes, int from, int to, long lineNumber, BufferedWriter out) throws IOException {
+        if (to > from && bytes[to - 1] == '\r') to--;
+        int fields = split(bytes, from, to);
+        if (fields == 0 || (fields == 1 && fieldFrom[0] == fieldTo[0]) || bytes[fieldFrom[0]] == '#') return;
+
+        commands++;
+        line.setLength(0);
+        line.append(lineNumber).append(' ');
+        String error;
+        try {
+            if (is(bytes, 0, "customer")) error = customer(bytes, fields);
+            else if (is(bytes, 0, "room")) error = room(bytes, fields);
+            else if (is(bytes, 0, "reserve")) error = reserve(bytes, fields);
+            else if (is(bytes, 0, "search")) error = search(bytes, fields);
+            else error = "unknown command " + text(bytes, 0);
+        } catch (RuntimeException e) {
+            // e.g. an email the Customer model rejects; one bad line does not stop the batch
+            error = e.getMessage() == null ? e.toString() : e.getMessage();
+        }
+        if (error != null) {
+            failed++;
+            line.setLength(0);
+            line.append(lineNumber).append(" ERROR ").append(error);
+        }
+        out.append(line).append('\n');
+    }
+
+    // Each command appends "OK ..." to line and returns null, or returns what went wrong.
+
+    private String customer(byte[] bytes, int fields) {
+        if (fields != 4) return "expected customer,<email>,<first name>,<last name>";
+        String email = text(bytes, 1);
+        if (!hotel.createCustomer(email, text(bytes, 2), text(bytes, 3))) {
+            return "customer " + email + " not created (invalid or already registered)";
+        }
+        line.append("OK");
+        return null;
+    }
+
+    private String room(byte[] bytes, int fields) {
+        if (fields != 4) return "expected room,<number>,<price>,<SINGLE|DOUBLE>";
+        String number = text(bytes, 1);
+        long cents = parseCents(bytes, fieldFrom[2], fieldTo[2]);
+        if (cents < 0) return "invalid price " + text(bytes, 2);
+        RoomType type = null;
+        for (RoomType candidate : RoomType.values()) {
+            if (is(bytes, 3, candidate.name())) type = candidate;
+        }
+        if (type == null) return "invalid room type " + text(bytes, 3);
+        if (number.isEmpty()) return "room number is required";
+        if (admin.getRoomNumber(number) != null) return "room " + number + " already exists";
+        admin.addRooms(List.of(new Room(number, cents / 100.0, type)));
+        line.append("OK");
+        return null;
+    }
+
+    private String reserve(byte[] bytes, int fields) {
+        if (fields != 5) return "expected reserve,<email>,<room number>,<check-in>,<check-out>";
+        int checkIn = EpochDays.parse(bytes, fieldFrom[3], fieldTo[3]);
+        int checkOut = EpochDays.parse(bytes, fieldFrom[4], fieldTo[4]);
+        if (checkIn == EpochDays.NOT_A_DATE || checkOut == EpochDays.NOT_A_DATE || checkIn >= checkOut) {
+            return "invalid dates " + text(bytes, 3) + " to " + text(bytes, 4);
+        }
+        String number = text(bytes, 2);
+        IRoom room = hotel.getRoomByNumber(number);
+        if (room == null) return "no room " + number;
+        if (hotel.reserveRoom(text(bytes, 1), room, date(checkIn), date(checkOut)) == null) {
+            return "room " + number + " not booked (unknown customer or dates taken)";
+        }
+        line.append("OK");
+        return null;
+    }
+
+    private String search(byte[] bytes, int fields) {
+        if (fields != 3 && fields != 4) return "expected search,<check-in>,<check-out>[,free|paid]";
+        int checkIn = EpochDays.parse(bytes, fieldFrom[1], fieldTo[1]);
+        int checkOut = EpochDays.parse(bytes, fieldFrom[2], fieldTo[2]);
+        if (checkIn == EpochDays.NOT_A_DATE || checkOut == EpochDays.NOT_A_DATE || checkIn >= checkOut) {
+            return "invalid dates " + text(bytes, 1) + " to " + text(bytes, 2);
+        }
+        Boolean onlyFree = null;
+        if (fields == 4) {
+            if (is(bytes, 3, "free")) onlyFree = true;
+            else if (is(bytes, 3, "paid")) onlyFree = false;
+            else return "expected free or paid, not " + text(bytes, 3);
+        }
+        Collection<IRoom> rooms = hotel.searchRooms(date(checkIn), date(checkOut), onlyFree, null, null, null);
+        line.append("OK ").append(rooms.size());
+        for (IRoom room : rooms) line.append(' ').append(room.getRoomNumber());
+        return null;
+    }
+
+    // splits [from, to) on commas into fieldFrom/fieldTo, trimming spaces; returns the count
+    private int split(byte[] bytes, int from, int to) {
+        int fields = 0;
+        int start = from;
+        for (int i = from; i <= to && fields < MAX_FIELDS; i++) {
+            if (i < to && bytes[i] != ',') continue;
+            int a = start;
+            int b = i;
+            while (a < b && bytes[a] == ' ') a++;
+            while (b > a && bytes[b - 1] == ' ') b--;
+            fieldFrom[fields] = a;
+            fieldTo[fields] = b;
+            fields++;
+            start = i + 1;
+        }
+        return fields;
+    }
+
+    // true if the field is word, ignoring ASCII case
+    private boolean is(byte[] bytes, int field, String word) {
+        int from = fieldFrom[field];
+        if (fieldTo[field] - from != word.length()) return false;
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toLowerCase(bytes[from + i]) != Character.toLowerCase(word.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private String text(byte[] bytes, int field) {
+        return new String(bytes, fieldFrom[field], fieldTo[field] - fieldFrom[field], StandardCharsets.UTF_8);
+    }
+
+    // a price like 120, 99.5 or 99.99 in whole cents; -1 if it is not one
+    private static long parseCents(byte[] bytes, int from, int to) {
+        long cents = 0;
+        int decimals = -1;
+        if (from == to) return -1;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (b < '0' || b > '9' || decimals == 2 || cents > Long.MAX_VALUE / 100) return -1;
+            cents = cents * 10 + (b - '0');
+            if (decimals >= 0) decimals++;
+        }
+        if (decimals == 0) return -1;
+        for (int i = Math.max(decimals, 0); i < 2; i++) cents *= 10;
+        return cents;
+    }
+
+    private Date date(int day) {
+        int slot = day & (DATE_CACHE - 1);
+        Date date = cachedDates[slot];
+        if (date == null || cachedDays[slot] != day) {
+            date = EpochDays.toDate(day);
+            cachedDates[slot] = date;
+            cachedDays[slot] = day;
+        }
+        return date;
+    }
+}
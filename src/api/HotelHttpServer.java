@@ -0,0 +1,412 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import model.EpochDays;
+import model.IRoom;
+import model.Page;
+import model.Property;
+import model.Reservation;
+import model.RoomType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// JSON over HTTP front-end for HotelResource and AdminResource, one virtual thread per request.
+// Dates are yyyy-MM-dd; POST parameters are form-encoded.
+//   GET  /rooms?checkIn=&checkOut=[&onlyFree=true|false][&type=SINGLE|DOUBLE][&minPrice=][&maxPrice=]
+//   GET  /rooms/page?checkIn=&checkOut=[&onlyFree=][&cursor=][&limit=20]
+//   GET  /rooms/cheapest?checkIn=&checkOut=[&onlyFree=][&type=][&k=10]
+//   GET  /recommendations?checkIn=&checkOut=[&window=7][&onlyFree=][&type=][&minPrice=][&maxPrice=]
+//   POST /customers        email, firstName, lastName
+//   POST /reservations     email, room, checkIn, checkOut
+//   GET  /reservations?email=
+//   DELETE /reservations?email=&room=&checkIn=
+//   PUT  /reservations     email, room, checkIn, newCheckIn, newCheckOut[, newRoom]
+//   GET  /properties
+//   GET  /properties/rooms?city=&checkIn=&checkOut=[&onlyFree=]
+//   POST /properties/reservations   property, email, room, checkIn, checkOut
+//   GET  /admin/rooms
+//   GET  /admin/metrics
+public class HotelHttpServer {
+
+    private static final int DEFAULT_WINDOW_DAYS = 7;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int DEFAULT_CHEAPEST = 10;
+
+    private final HotelResource hotel = HotelResource.getInstance();
+    private final AdminResource admin = AdminResource.getInstance();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private HotelHttpServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    // port 0 picks a free port
+    public static HotelHttpServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+
+        HotelHttpServer api = new HotelHttpServer(server, executor);
+        server.createContext("/rooms", api.route("GET", api::searchRooms));
+        server.createContext("/rooms/page", api.route("GET", api::searchRoomsPage));
+        server.createContext("/rooms/cheapest", api.route("GET", api::cheapestRooms));
+        server.createContext("/recommendations", api.route("GET", api::recommendations));
+        server.createContext("/customers", api.route("POST", api::createCustomer));
+        server.createContext("/reservations", exchange -> {
+            switch (exchange.getRequestMethod()) {
+                case "POST": api.handle(exchange, api::reserve); break;
+                case "PUT": api.handle(exchange, api::modify); break;
+                case "DELETE": api.handle(exchange, api::cancel); break;
+                default: api.route("GET", api::customerReservations).handle(exchange);
+            }
+        });
+        server.createContext("/properties", api.route("GET", params -> ok(propertiesJson(api.admin.listProperties()))));
+        server.createContext("/properties/rooms", api.route("GET", api::searchCity));
+        server.createContext("/properties/reservations", api.route("POST", api::reserveAt));
+        server.createContext("/admin/rooms", api.route("GET", params -> ok(roomsJson(api.admin.listRooms()))));
+        server.createContext("/admin/metrics", api.route("GET", params -> ok(api.admin.getMetricsJson())));
+        server.start();
+        return api;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private Response searchRooms(Map<String, String> params) {
+        Date checkIn = date(params, "checkIn");
+        Date checkOut = date(params, "checkOut");
+        return ok(roomsJson(hotel.searchRooms(checkIn, checkOut, onlyFree(params),
+                roomType(params), price(params, "minPrice"), price(params, "maxPrice"))));
+    }
+
+    private Response searchRoomsPage(Map<String, String> params) {
+        Date checkIn = date(params, "checkIn");
+        Date checkOut = date(params, "checkOut");
+        int limit = params.containsKey("limit") ? number(params, "limit") : DEFAULT_PAGE_SIZE;
+        Page<IRoom> page = hotel.searchRoomsPage(checkIn, checkOut, onlyFree(params), params.get("cursor"), limit);
+        return ok("{\"rooms\":" + roomsJson(page.getItems()) + ",\"nextCursor\":"
+                + (page.hasMore() ? "\"" + escape(page.getNextCursor()) + "\"" : "null") + "}");
+    }
+
+    private Response cheapestRooms(Map<String, String> params) {
+        Date checkIn = date(params, "checkIn");
+        Date checkOut = date(params, "checkOut");
+        int k = params.containsKey("k") ? number(params, "k") : DEFAULT_CHEAPEST;
+        return ok(roomsJson(hotel.findCheapestAvailableRooms(checkIn, checkOut, onlyFree(params), roomType(params), k)));
+    }
+
+    private Response recommendations(Map<String, String> params) {
+        Date checkIn = date(params, "checkIn");
+        Date checkOut = date(params, "checkOut");
+        int window = params.containsKey("window") ? number(params, "window") : DEFAULT_WINDOW_DAYS;
+
+        StringBuilder json = new StringBuilder("[");
+        for (Map.Entry<IRoom, Date[]> entry
+                : hotel.searchRoomsWithRecommendations(checkIn, checkOut, window, onlyFree(params), roomType(params),
+                        price(params, "minPrice"), price(params, "maxPrice")).entrySet()) {
+            if (json.length() > 1) json.append(',');
+            json.append("{\"room\":").append(roomJson(entry.getKey()))
+                    .append(",\"checkIn\":\"").append(isoDate(EpochDays.of(entry.getValue()[0])))
+                    .append("\",\"checkOut\":\"").append(isoDate(EpochDays.of(entry.getValue()[1])))
+                    .append("\"}");
+        }
+        return ok(json.append(']').toString());
+    }
+
+    private Response createCustomer(Map<String, String> params) {
+        try {
+            boolean created = hotel.createCustomer(required(params, "email"),
+                    required(params, "firstName"), required(params, "lastName"));
+            return created ? new Response(201, "{\"created\":true}")
+                    : error(409, "An account with this email already exists.");
+        } catch (IllegalArgumentException e) {
+            return error(400, e.getMessage());
+        }
+    }
+
+    private Response reserve(Map<String, String> params) {
+        String email = required(params, "email");
+        IRoom room = hotel.getRoomByNumber(required(params, "room"));
+        Date checkIn = date(params, "checkIn");
+        Date checkOut = date(params, "checkOut");
+        if (room == null) return error(404, "No such room.");
+        if (hotel.getCustomerByEmail(email) == null) return error(404, "No such customer.");
+        if (!checkIn.before(checkOut)) return error(400, "Check-out date must be after check-in date.");
+
+        Reservation reservation = hotel.reserveRoom(email, room, checkIn, checkOut);
+        if (reservation == null) return error(409, "The room is already booked for these dates.");
+        return new Response(201, reservationJson(reservation));
+    }
+
+    private Response cancel(Map<String, String> params) {
+        String email = required(params, "email");
+        IRoom room = hotel.getRoomByNumber(required(params, "room"));
+        Date checkIn = date(params, "checkIn");
+        if (room == null) return error(404, "No such room.");
+
+        Reservation cancelled = hotel.cancelReservation(email, room, checkIn);
+        if (cancelled == null) return error(404, "No such reservation.");
+        return ok(reservationJson(cancelled));
+    }
+
+    private Response modify(Map<String, String> params) {
+        String email = required(params, "email");
+        IRoom room = hotel.getRoomByNumber(required(params, "room"));
+        IRoom newRoom = params.containsKey("newRoom") ? hotel.getRoomByNumber(required(params, "newRoom")) : room;
+        Date checkIn = date(params, "checkIn");
+        Date newCheckIn = date(params, "newCheckIn");
+        Date newCheckOut = date(params, "newCheckOut");
+        if (room == null || newRoom == null) return error(404, "No such room.");
+        if (!newCheckIn.before(newCheckOut)) return error(400, "Check-out date must be after check-in date.");
+        if (hotel.getCustomerByEmail(email) == null) return error(404, "No such customer.");
+
+        Reservation modified = hotel.modifyReservation(email, room, checkIn, newRoom, newCheckIn, newCheckOut);
+        if (modified == null) return error(409, "No such reservation, or the new room is booked for those dates.");
+        return ok(reservationJson(modified));
+    }
+
+    private Response searchCity(Map<String, String> params) {
+        String city = required(params, "city");
+        Date checkIn = date(params, "checkIn");
+        Date checkOut = date(params, "checkOut");
+
+        StringBuilder json = new StringBuilder("[");
+        for (Map.Entry<Property, Collection<IRoom>> entry
+                : hotel.searchRoomsInCity(city, checkIn, checkOut, onlyFree(params)).entrySet()) {
+            if (json.length() > 1) json.append(',');
+            json.append("{\"property\":").append(propertyJson(entry.getKey()))
+                    .append(",\"rooms\":").append(roomsJson(entry.getValue())).append('}');
+        }
+        return ok(json.append(']').toString());
+    }
+
+    private Response reserveAt(Map<String, String> params) {
+        String propertyId = required(params, "property");
+        String email = required(params, "email");
+        String roomNumber = required(params, "room");
+        Date checkIn = date(params, "checkIn");
+        Date checkOut = date(params, "checkOut");
+        if (admin.getProperty(propertyId) == null) return error(404, "No such property.");
+        if (hotel.getCustomerByEmail(email) == null) return error(404, "No such customer.");
+        if (!checkIn.before(checkOut)) return error(400, "Check-out date must be after check-in date.");
+
+        Reservation reservation = hotel.reserveRoomAt(propertyId, email, roomNumber, checkIn, checkOut);
+        if (reservation == null) return error(409, "No such room, or it is already booked for these dates.");
+        return new Response(201, reservationJson(reservation));
+    }
+
+    private Response customerReservations(Map<String, String> params) {
+        StringBuilder json = new StringBuilder("[");
+        for (Reservation reservation : hotel.getCustomerReservations(required(params, "email"))) {
+            if (json.length() > 1) json.append(',');
+            json.append(reservationJson(reservation));
+        }
+        return ok(json.append(']').toString());
+    }
+
+    // ---- plumbing ----
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    // thrown for missing or malformed parameters; becomes a 400
+    private static final class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequest(String message) {
+            super(message);
+        }
+    }
+
+    private interface Endpoint {
+        Response handle(Map<String, String> params);
+    }
+
+    private HttpHandler route(String method, Endpoint endpoint) {
+        return exchange -> {
+            if (!method.equals(exchange.getRequestMethod())) {
+                send(exchange, error(405, "Use " + method + "."));
+                return;
+            }
+            handle(exchange, endpoint);
+        };
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        Response response;
+        try {
+            response = endpoint.handle(parameters(exchange));
+        } catch (BadRequest e) {
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            response = error(500, "Internal error.");
+        }
+        send(exchange, response);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // query string, plus the form-encoded body of a POST or PUT
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseInto(params, exchange.getRequestURI().getRawQuery());
+        if ("POST".equals(exchange.getRequestMethod()) || "PUT".equals(exchange.getRequestMethod())) {
+            try (InputStream in = exchange.getRequestBody()) {
+                parseInto(params, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void parseInto(Map<String, String> params, String encoded) {
+        if (encoded == null || encoded.isEmpty()) return;
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) throw new BadRequest("Missing parameter: " + name);
+        return value.trim();
+    }
+
+    private static Date date(Map<String, String> params, String name) {
+        int epochDay = EpochDays.parse(required(params, name));
+        if (epochDay == EpochDays.NOT_A_DATE) throw new BadRequest("Invalid date for " + name + ", use yyyy-MM-dd.");
+        return EpochDays.toDate(epochDay);
+    }
+
+    private static int number(Map<String, String> params, String name) {
+        try {
+            return Integer.parseInt(required(params, name));
+        } catch (NumberFormatException e) {
+            throw new BadRequest("Invalid number for " + name + ".");
+        }
+    }
+
+    private static Boolean onlyFree(Map<String, String> params) {
+        String value = params.get("onlyFree");
+        return value == null || value.isEmpty() ? null : Boolean.valueOf(value);
+    }
+
+    private static RoomType roomType(Map<String, String> params) {
+        String value = params.get("type");
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return RoomType.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequest("Invalid room type, use SINGLE or DOUBLE.");
+        }
+    }
+
+    private static Double price(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) return null;
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new BadRequest("Invalid price for " + name + ".");
+        }
+    }
+
+    private static Response ok(String json) {
+        return new Response(200, json);
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, "{\"error\":\"" + escape(message) + "\"}");
+    }
+
+    private static String roomsJson(Collection<IRoom> rooms) {
+        StringBuilder json = new StringBuilder("[");
+        for (IRoom room : rooms) {
+            if (json.length() > 1) json.append(',');
+            json.append(roomJson(room));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String roomJson(IRoom room) {
+        return "{\"number\":\"" + escape(room.getRoomNumber()) + "\""
+                + ",\"price\":" + (room.getRoomPrice() == null ? 0.0 : room.getRoomPrice())
+                + ",\"type\":\"" + room.getRoomType() + "\""
+                + ",\"free\":" + room.isFree() + "}";
+    }
+
+    private static String propertiesJson(Collection<Property> properties) {
+        StringBuilder json = new StringBuilder("[");
+        for (Property property : properties) {
+            if (json.length() > 1) json.append(',');
+            json.append(propertyJson(property));
+        }
+        return json.append(']').toString();
+    }
+
+    private static String propertyJson(Property property) {
+        return "{\"id\":\"" + escape(property.getId()) + "\""
+                + ",\"name\":\"" + escape(property.getName() == null ? "" : property.getName()) + "\""
+                + ",\"city\":\"" + escape(property.getCity()) + "\"}";
+    }
+
+    private static String reservationJson(Reservation reservation) {
+        return "{\"email\":\"" + escape(reservation.getCustomer().getEmail()) + "\""
+                + ",\"room\":" + roomJson(reservation.getRoom())
+                + ",\"checkIn\":\"" + isoDate(reservation.getCheckInDay()) + "\""
+                + ",\"checkOut\":\"" + isoDate(reservation.getCheckOutDay()) + "\"}";
+    }
+
+    private static String isoDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    private static String escape(String value) {
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') out.append('\\').append(c);
+            else if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+            else out.append(c);
+        }
+        return out.toString();
+    }
+}
@@ -1,12 +1,21 @@
 package api;
 
+import metrics.HotelMetrics;
+import metrics.Operation;
+import model.BookingRequest;
 import model.Customer;
+import model.EpochDays;
 import model.IRoom;
+import model.Page;
+import model.Property;
 import model.Reservation;
+import model.RoomType;
 import service.CustomerService;
+import service.PropertyService;
 import service.ReservationService;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 public class HotelResource {
 
@@ -14,8 +23,13 @@ public class HotelResource {
 
     private final CustomerService customerService = CustomerService.getInstance();
     private final ReservationService reservationService = ReservationService.getInstance();
+    private final PropertyService propertyService = PropertyService.getInstance();
+    private final HotelMetrics metrics = HotelMetrics.getInstance();
+    private final SearchCache searchCache = new SearchCache(SearchCache.DEFAULT_CAPACITY);
 
-    private HotelResource() {}
+    private HotelResource() {
+        reservationService.addListener(searchCache);
+    }
 
     public static HotelResource getInstance() {
         return instance;
@@ -23,25 +37,97 @@ public class HotelResource {
 
     //    Fetch a customer using their email
     public Customer getCustomerByEmail(String email) {
-        return customerService.fetchCustomer(email);
+        long start = System.nanoTime();
+        try {
+            return customerService.fetchCustomer(email);
+        } finally {
+            metrics.recordLatency(Operation.GET_CUSTOMER_BY_EMAIL, start);
+        }
     }
 
     // Create a new customer account
     public boolean createCustomer(String email, String firstName, String lastName) {
-        return customerService.registerCustomer(email, firstName, lastName);
+        long start = System.nanoTime();
+        try {
+            return customerService.registerCustomer(email, firstName, lastName);
+        } finally {
+            metrics.recordLatency(Operation.CREATE_CUSTOMER, start);
+        }
     }
 
     //     Get a room using room number
     public IRoom getRoomByNumber(String roomNumber) {
-        return reservationService.fetchRoomByNumber(roomNumber);
+        long start = System.nanoTime();
+        try {
+            return reservationService.fetchRoomByNumber(roomNumber);
+        } finally {
+            metrics.recordLatency(Operation.GET_ROOM_BY_NUMBER, start);
+        }
     }
 
 
 
+    // rooms free for the exact dates; daysWindow is only used by the recommendation search
     public Collection<IRoom> searchRooms(Date checkIn, Date checkOut, int daysWindow, Boolean onlyFree) {
-        return reservationService.searchRoomsForDisplay(checkIn, checkOut, onlyFree);
+        return searchRooms(checkIn, checkOut, onlyFree, null, null, null);
+    }
+
+    // rooms free for the exact dates, of one type and/or in an inclusive price range; null means any
+    public Collection<IRoom> searchRooms(Date checkIn, Date checkOut, Boolean onlyFree,
+                                         RoomType type, Double minPrice, Double maxPrice) {
+        long start = System.nanoTime();
+        try {
+            SearchCache.Key key = SearchCache.Key.search(EpochDays.of(checkIn), EpochDays.of(checkOut),
+                    onlyFree, type, minPrice, maxPrice);
+            Collection<IRoom> rooms = searchCache.get(key, () -> Collections.unmodifiableList(new ArrayList<>(
+                    reservationService.searchRoomsForDisplay(checkIn, checkOut, onlyFree, type, minPrice, maxPrice))));
+            metrics.recordSearchResults(rooms.size());
+            return rooms;
+        } finally {
+            metrics.recordLatency(Operation.SEARCH_ROOMS, start);
+        }
+    }
+
+
+    // One page of searchRooms in room number order; pass the page's next cursor to continue,
+    // or null to start from the beginning. Pages are cached like whole searches.
+    public Page<IRoom> searchRoomsPage(Date checkIn, Date checkOut, Boolean onlyFree, String cursor, int pageSize) {
+        long start = System.nanoTime();
+        try {
+            SearchCache.Key key = SearchCache.Key.searchPage(EpochDays.of(checkIn), EpochDays.of(checkOut),
+                    onlyFree, cursor, pageSize);
+            Page<IRoom> page = searchCache.get(key, () -> reservationService.searchRoomsPage(checkIn, checkOut,
+                    onlyFree, null, null, null, cursor, pageSize));
+            metrics.recordSearchResults(page.getItems().size());
+            return page;
+        } finally {
+            metrics.recordLatency(Operation.SEARCH_ROOMS_PAGE, start);
+        }
+    }
+
+    // available rooms, checked lazily while the caller consumes the stream
+    public Stream<IRoom> streamAvailableRooms(Date checkIn, Date checkOut, Boolean onlyFree,
+                                              RoomType type, Double minPrice, Double maxPrice) {
+        long start = System.nanoTime();
+        try {
+            return reservationService.streamAvailableRooms(checkIn, checkOut, onlyFree, type, minPrice, maxPrice);
+        } finally {
+            metrics.recordLatency(Operation.STREAM_AVAILABLE_ROOMS, start);
+        }
     }
 
+    // the k cheapest rooms free for the dates, cheapest first
+    public List<IRoom> findCheapestAvailableRooms(Date checkIn, Date checkOut, Boolean onlyFree,
+                                                  RoomType type, int k) {
+        long start = System.nanoTime();
+        try {
+            List<IRoom> rooms = reservationService.findCheapestAvailableRooms(checkIn, checkOut, onlyFree, type, k);
+            metrics.recordSearchResults(rooms.size());
+            return rooms;
+        } finally {
+            metrics.recordLatency(Operation.FIND_CHEAPEST_ROOMS, start);
+        }
+    }
 
 //      Recommended future rooms
 
@@ -51,23 +137,150 @@ public class HotelResource {
             int daysWindow,
             Boolean onlyFree
     ) {
-        return reservationService.findRecommendedRoomsWithDates(checkIn, checkOut, daysWindow, onlyFree);
+        return searchRoomsWithRecommendations(checkIn, checkOut, daysWindow, onlyFree, null, null, null);
+    }
+
+    public Map<IRoom, Date[]> searchRoomsWithRecommendations(Date checkIn, Date checkOut, int daysWindow,
+                                                             Boolean onlyFree, RoomType type,
+                                                             Double minPrice, Double maxPrice) {
+        long start = System.nanoTime();
+        try {
+            SearchCache.Key key = SearchCache.Key.recommendations(EpochDays.of(checkIn), EpochDays.of(checkOut),
+                    daysWindow, onlyFree, type, minPrice, maxPrice);
+            Map<IRoom, Date[]> cached = searchCache.get(key, () -> reservationService.findRecommendedRoomsWithDates(
+                    checkIn, checkOut, daysWindow, onlyFree, type, minPrice, maxPrice));
+            // callers get their own map and dates, the cached entry stays untouched
+            Map<IRoom, Date[]> recommendations = new LinkedHashMap<>();
+            for (Map.Entry<IRoom, Date[]> entry : cached.entrySet()) {
+                Date[] dates = entry.getValue();
+                recommendations.put(entry.getKey(), new Date[]{(Date) dates[0].clone(), (Date) dates[1].clone()});
+            }
+            return recommendations;
+        } finally {
+            metrics.recordLatency(Operation.SEARCH_ROOMS_WITH_RECOMMENDATIONS, start);
+        }
     }
 
     //    Reserve a room for a customer
     public Reservation reserveRoom(String customerEmail, IRoom room, Date checkIn, Date checkOut) {
-        Customer customer = customerService.fetchCustomer(customerEmail);
-        if (customer == null) return null;
+        long start = System.nanoTime();
+        try {
+            Customer customer = customerService.fetchCustomer(customerEmail);
+            if (customer == null) return null;
+
+            return reservationService.bookRoomForCustomer(customer, room, checkIn, checkOut);
+        } finally {
+            metrics.recordLatency(Operation.RESERVE_ROOM, start);
+        }
+    }
+
+    //    Reserve several rooms/stays for one customer: all of them or none (null)
+    public List<Reservation> reserveRooms(String customerEmail, List<BookingRequest> requests) {
+        long start = System.nanoTime();
+        try {
+            Customer customer = customerService.fetchCustomer(customerEmail);
+            if (customer == null) return null;
 
-        return reservationService.bookRoomForCustomer(customer, room, checkIn, checkOut);
+            return reservationService.bookRoomsForCustomer(customer, requests);
+        } finally {
+            metrics.recordLatency(Operation.RESERVE_ROOMS, start);
+        }
     }
 
     //   Fetch all reservations of a customer
     public Collection<Reservation> getCustomerReservations(String email) {
-        Customer customer = customerService.fetchCustomer(email);
-        if (customer == null) return Collections.emptyList();
+        long start = System.nanoTime();
+        try {
+            Customer customer = customerService.fetchCustomer(email);
+            if (customer == null) return Collections.emptyList();
+
+            return reservationService.fetchReservationsForCustomer(customer);
+        } finally {
+            metrics.recordLatency(Operation.GET_CUSTOMER_RESERVATIONS, start);
+        }
+    }
+
+    // ---- multi-property ----
+
+    // rooms free for the dates at every property in the city, searched in parallel
+    public Map<Property, Collection<IRoom>> searchRoomsInCity(String city, Date checkIn, Date checkOut, Boolean onlyFree) {
+        long start = System.nanoTime();
+        try {
+            Map<Property, Collection<IRoom>> rooms = propertyService.searchCity(city, checkIn, checkOut, onlyFree);
+            int found = 0;
+            for (Collection<IRoom> atProperty : rooms.values()) found += atProperty.size();
+            metrics.recordSearchResults(found);
+            return rooms;
+        } finally {
+            metrics.recordLatency(Operation.SEARCH_CITY, start);
+        }
+    }
+
+    // books a room at one property; the booking runs on that property's writer thread
+    public Reservation reserveRoomAt(String propertyId, String customerEmail, String roomNumber,
+                                     Date checkIn, Date checkOut) {
+        long start = System.nanoTime();
+        try {
+            Customer customer = customerService.fetchCustomer(customerEmail);
+            IRoom room = propertyService.fetchRoom(propertyId, roomNumber);
+            if (customer == null || room == null) return null;
+
+            return propertyService.bookRoom(propertyId, customer, room, checkIn, checkOut).join();
+        } finally {
+            metrics.recordLatency(Operation.RESERVE_ROOM_AT, start);
+        }
+    }
+
+    public Reservation cancelReservationAt(String propertyId, String customerEmail, String roomNumber, Date checkIn) {
+        long start = System.nanoTime();
+        try {
+            Customer customer = customerService.fetchCustomer(customerEmail);
+            IRoom room = propertyService.fetchRoom(propertyId, roomNumber);
+            if (customer == null || room == null) return null;
+
+            return propertyService.cancelReservation(propertyId, customer, room, checkIn).join();
+        } finally {
+            metrics.recordLatency(Operation.CANCEL_RESERVATION_AT, start);
+        }
+    }
+
+    public Map<Property, Collection<Reservation>> getCustomerReservationsByProperty(String email) {
+        long start = System.nanoTime();
+        try {
+            Customer customer = customerService.fetchCustomer(email);
+            if (customer == null) return Collections.emptyMap();
+
+            return propertyService.fetchReservationsForCustomer(customer);
+        } finally {
+            metrics.recordLatency(Operation.GET_CUSTOMER_RESERVATIONS_BY_PROPERTY, start);
+        }
+    }
+
+    // Cancel the customer's stay in the room that checks in on checkIn; null if there is none
+    public Reservation cancelReservation(String customerEmail, IRoom room, Date checkIn) {
+        long start = System.nanoTime();
+        try {
+            Customer customer = customerService.fetchCustomer(customerEmail);
+            if (customer == null) return null;
+
+            return reservationService.cancelReservation(customer, room, checkIn);
+        } finally {
+            metrics.recordLatency(Operation.CANCEL_RESERVATION, start);
+        }
+    }
+
+    // Move a stay to new dates and/or another room; the original is kept if the new one is taken
+    public Reservation modifyReservation(String customerEmail, IRoom room, Date checkIn,
+                                         IRoom newRoom, Date newCheckIn, Date newCheckOut) {
+        long start = System.nanoTime();
+        try {
+            Customer customer = customerService.fetchCustomer(customerEmail);
+            if (customer == null) return null;
 
-        return reservationService.fetchReservationsForCustomer(customer);
+            return reservationService.modifyReservation(customer, room, checkIn, newRoom, newCheckIn, newCheckOut);
+        } finally {
+            metrics.recordLatency(Operation.MODIFY_RESERVATION, start);
+        }
     }
 }
 
@@ -0,0 +1,202 @@
+package api;
+
+import metrics.HotelMetrics;
+import model.IRoom;
+import model.Page;
+import model.Reservation;
+import model.RoomType;
+import service.ReservationListener;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Bounded LRU cache of room search and recommendation results. Each entry knows the nights
+// its answer depends on, so a booking or cancellation only invalidates the entries whose range
+// it overlaps; a new room can appear in any answer and invalidates everything. Recommendations
+// also depend on today's date (the 365-day cap), so the whole cache is cleared at midnight.
+//
+// Writers never touch the entries. Nights are grouped into buckets of 2^BUCKET_BITS, each with
+// a change counter that bookings and cancellations bump lock-free. An entry keeps the sum of
+// its buckets' counters from before it was computed, and a read whose sum has moved since
+// drops it as a miss. Counters only grow, so an unchanged sum means no change in its range.
+class SearchCache implements ReservationListener {
+
+    static final int DEFAULT_CAPACITY = 1024;
+    private static final int BUCKET_BITS = 3;
+    // buckets share this many counters, wrapping around; a stay decades away may bump a
+    // counter an entry also reads, which only costs a spurious miss
+    private static final int COUNTERS = 1 << 10;
+
+    // a search depends on [checkInDay, checkOutDay); a recommendation on every night up to endDay.
+    // A page of a search also has the cursor it starts after and its size; pageSize is 0 otherwise.
+    static final class Key {
+        final boolean recommendations;
+        final int checkInDay;
+        final int checkOutDay;
+        final int window;
+        final Boolean onlyFree;
+        final RoomType type;
+        final Double minPrice;
+        final Double maxPrice;
+        final int endDay;
+        final String after;
+        final int pageSize;
+
+        private Key(boolean recommendations, int checkInDay, int checkOutDay, int window, Boolean onlyFree,
+                    RoomType type, Double minPrice, Double maxPrice, int endDay, String after, int pageSize) {
+            this.recommendations = recommendations;
+            this.checkInDay = checkInDay;
+            this.checkOutDay = checkOutDay;
+            this.window = window;
+            this.onlyFree = onlyFree;
+            this.type = type;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.endDay = endDay;
+            this.after = after;
+            this.pageSize = pageSize;
+        }
+
+        static Key search(int checkInDay, int checkOutDay, Boolean onlyFree,
+                          RoomType type, Double minPrice, Double maxPrice) {
+            return new Key(false, checkInDay, checkOutDay, 0, onlyFree, type, minPrice, maxPrice, checkOutDay,
+                    null, 0);
+        }
+
+        // same clamping of the page size as Page.of
+        static Key searchPage(int checkInDay, int checkOutDay, Boolean onlyFree, String after, int pageSize) {
+            return new Key(false, checkInDay, checkOutDay, 0, onlyFree, null, null, null, checkOutDay,
+                    after, Math.max(1, Math.min(Page.MAX_PAGE_SIZE, pageSize)));
+        }
+
+        // same clamping as the service: the window is 1..365 days and covers 7 start days
+        static Key recommendations(int checkInDay, int checkOutDay, int window, Boolean onlyFree,
+                                   RoomType type, Double minPrice, Double maxPrice) {
+            int clamped = Math.max(1, Math.min(365, window));
+            int duration = Math.max(0, checkOutDay - checkInDay);
+            return new Key(true, checkInDay, checkOutDay, clamped, onlyFree, type, minPrice, maxPrice,
+                    checkInDay + clamped + 6 + duration, null, 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return recommendations == key.recommendations && checkInDay == key.checkInDay
+                    && checkOutDay == key.checkOutDay && window == key.window
+                    && Objects.equals(onlyFree, key.onlyFree) && type == key.type
+                    && Objects.equals(minPrice, key.minPrice) && Objects.equals(maxPrice, key.maxPrice)
+                    && Objects.equals(after, key.after) && pageSize == key.pageSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(recommendations, checkInDay, checkOutDay, window, onlyFree, type, minPrice, maxPrice,
+                    after, pageSize);
+        }
+    }
+
+    // a result and the stamp of its key from before it was computed
+    private static final class Entry {
+        final Object value;
+        final long stamp;
+
+        Entry(Object value, long stamp) {
+            this.value = value;
+            this.stamp = stamp;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final HotelMetrics metrics = HotelMetrics.getInstance();
+    // changes to the nights of each bucket, at bucket & (COUNTERS - 1)
+    private final AtomicLongArray changes = new AtomicLongArray(COUNTERS);
+    // rooms registered, which change every answer
+    private final AtomicLong roomChanges = new AtomicLong();
+    private long validUntilMillis = nextMidnightMillis();
+
+    SearchCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > SearchCache.this.capacity;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(Key key, Supplier<T> compute) {
+        synchronized (this) {
+            if (System.currentTimeMillis() >= validUntilMillis) {
+                entries.clear();
+                validUntilMillis = nextMidnightMillis();
+            }
+            Entry cached = entries.get(key);
+            if (cached != null && cached.stamp == stamp(key)) {
+                metrics.recordSearchCacheHit();
+                return (T) cached.value;
+            }
+            if (cached != null) entries.remove(key);
+        }
+        metrics.recordSearchCacheMiss();
+
+        // taken first: a change during compute moves the stamp, so the next read misses
+        long stamp = stamp(key);
+        T result = compute.get();
+        synchronized (this) {
+            entries.put(key, new Entry(result, stamp));
+        }
+        return result;
+    }
+
+    @Override
+    public void roomRegistered(IRoom room) {
+        roomChanges.incrementAndGet();
+    }
+
+    @Override
+    public void stayBooked(Reservation reservation) {
+        invalidate(reservation.getCheckInDay(), reservation.getCheckOutDay());
+    }
+
+    @Override
+    public void stayReleased(Reservation reservation) {
+        invalidate(reservation.getCheckInDay(), reservation.getCheckOutDay());
+    }
+
+    // invalidates the entries that depend on any night in [fromDay, toDay)
+    void invalidate(int fromDay, int toDay) {
+        if (fromDay >= toDay) return;
+        long first = fromDay >> BUCKET_BITS;
+        long last = Math.min((toDay - 1) >> BUCKET_BITS, first + COUNTERS - 1);
+        for (long bucket = first; bucket <= last; bucket++) changes.incrementAndGet((int) bucket & (COUNTERS - 1));
+    }
+
+    // sum of the counters the key's nights depend on
+    private long stamp(Key key) {
+        long stamp = roomChanges.get();
+        if (key.checkInDay >= key.endDay) return stamp;
+        long first = key.checkInDay >> BUCKET_BITS;
+        long last = Math.min((key.endDay - 1) >> BUCKET_BITS, first + COUNTERS - 1);
+        for (long bucket = first; bucket <= last; bucket++) stamp += changes.get((int) bucket & (COUNTERS - 1));
+        return stamp;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static long nextMidnightMillis() {
+        ZoneId zone = ZoneId.systemDefault();
+        return LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
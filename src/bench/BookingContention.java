@@ -0,0 +1,97 @@
+package bench;
+
+import model.Customer;
+import model.EpochDays;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import service.CustomerService;
+import service.ReservationService;
+import service.ReservationService.BookingMode;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Booking throughput under contention for each booking mode, against a baseline that puts
+// every booking behind one global monitor, the way the services were before they became
+// concurrent:
+//
+//   java -cp out bench.BookingContention threads=8 rooms=16 ops=400000 \
+//        modes=SYNCHRONIZED,STRIPED_LOCKS,OPTIMISTIC
+//
+// Fewer rooms means more threads on the same calendar. Each mode books its own set of rooms.
+public class BookingContention {
+
+    private static final String SYNCHRONIZED = "SYNCHRONIZED";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "16"));
+        int ops = Integer.parseInt(options.getOrDefault("ops", "400000"));
+        String[] modes = options.getOrDefault("modes", SYNCHRONIZED + ",STRIPED_LOCKS,OPTIMISTIC").split(",");
+
+        ReservationService reservations = ReservationService.getInstance();
+        CustomerService customers = CustomerService.getInstance();
+        customers.registerCustomer("contention@example.com", "Contention", "Bench");
+        Customer guest = customers.fetchCustomer("contention@example.com");
+        int today = EpochDays.today();
+        Date[] days = new Date[800];
+        for (int i = 0; i < days.length; i++) days[i] = EpochDays.toDate(today + i);
+
+        PrintStream console = System.out;
+        console.printf("threads=%d rooms=%d ops=%d cores=%d%n", threads, rooms, ops,
+                Runtime.getRuntime().availableProcessors());
+        for (String mode : modes) {
+            boolean global = mode.equals(SYNCHRONIZED);
+            reservations.setBookingMode(global ? BookingMode.STRIPED_LOCKS : BookingMode.valueOf(mode));
+            IRoom[] inventory = new IRoom[rooms];
+            for (int i = 0; i < rooms; i++) {
+                inventory[i] = new Room(mode + "-" + i, 10.0, RoomType.SINGLE);
+                reservations.registerRoom(inventory[i]);
+            }
+            Object monitor = new Object();
+
+            // conflicts are reported on stdout; keep them out of the results
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            long start = System.nanoTime();
+            ExecutorService clients = Executors.newFixedThreadPool(threads);
+            List<Future<?>> running = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Random random = new Random(t);
+                running.add(clients.submit(() -> {
+                    for (int k = 0; k < ops / threads; k++) {
+                        int night = random.nextInt(days.length - 1);
+                        IRoom room = inventory[random.nextInt(rooms)];
+                        if (global) {
+                            synchronized (monitor) {
+                                reservations.bookRoomForCustomer(guest, room, days[night], days[night + 1]);
+                            }
+                        } else {
+                            reservations.bookRoomForCustomer(guest, room, days[night], days[night + 1]);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> client : running) client.get();
+            clients.shutdown();
+            long elapsed = System.nanoTime() - start;
+            System.setOut(console);
+            console.printf("%-14s %,12.0f bookings/s%n", mode, ops / threads * threads / (elapsed / 1e9));
+        }
+        System.exit(0);
+    }
+}
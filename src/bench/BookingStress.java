@@ -0,0 +1,112 @@
+package bench;
+
+import model.Customer;
+import model.EpochDays;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import service.CustomerService;
+import service.ReservationService;
+import service.ReservationService.BookingMode;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Many threads booking random stays on a few rooms at once, then a check that no two stays
+// of a room overlap and that every booking that succeeded is on record:
+//
+//   java -cp out bench.BookingStress threads=8 bookings=160000 rooms=20 mode=STRIPED_LOCKS
+//
+// Exits with status 1 if the check fails.
+public class BookingStress {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        int bookings = Integer.parseInt(options.getOrDefault("bookings", "160000"));
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "20"));
+        BookingMode mode = BookingMode.valueOf(options.getOrDefault("mode", "STRIPED_LOCKS"));
+
+        ReservationService reservations = ReservationService.getInstance();
+        CustomerService customers = CustomerService.getInstance();
+        reservations.setBookingMode(mode);
+        IRoom[] inventory = new IRoom[rooms];
+        for (int i = 0; i < rooms; i++) {
+            inventory[i] = new Room("S" + i, 10.0, RoomType.SINGLE);
+            reservations.registerRoom(inventory[i]);
+        }
+        Customer[] guests = new Customer[threads];
+        for (int t = 0; t < threads; t++) {
+            customers.registerCustomer("stress" + t + "@example.com", "Stress", String.valueOf(t));
+            guests[t] = customers.fetchCustomer("stress" + t + "@example.com");
+        }
+
+        // conflicts are reported on stdout; keep them out of the results
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        int today = EpochDays.today();
+        AtomicLong booked = new AtomicLong();
+        long start = System.nanoTime();
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Customer guest = guests[t];
+            Random random = new Random(t);
+            running.add(clients.submit(() -> {
+                for (int k = 0; k < bookings / threads; k++) {
+                    int checkIn = today + random.nextInt(300);
+                    int checkOut = checkIn + 1 + random.nextInt(5);
+                    if (reservations.bookRoomForCustomer(guest, inventory[random.nextInt(rooms)],
+                            EpochDays.toDate(checkIn), EpochDays.toDate(checkOut)) != null) {
+                        booked.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> client : running) client.get();
+        clients.shutdown();
+        long elapsed = System.nanoTime() - start;
+        System.setOut(console);
+
+        Map<String, List<Reservation>> byRoom = new HashMap<>();
+        long recorded = 0;
+        for (Customer guest : guests) {
+            for (Reservation res : reservations.fetchReservationsForCustomer(guest)) {
+                byRoom.computeIfAbsent(res.getRoom().getRoomNumber(), k -> new ArrayList<>()).add(res);
+                recorded++;
+            }
+        }
+        long overlaps = 0;
+        for (List<Reservation> stays : byRoom.values()) {
+            stays.sort(Comparator.comparingInt(Reservation::getCheckInDay));
+            for (int i = 1; i < stays.size(); i++) {
+                if (stays.get(i).getCheckInDay() < stays.get(i - 1).getCheckOutDay()) overlaps++;
+            }
+        }
+
+        console.printf("mode=%s threads=%d rooms=%d attempts=%d in %d ms%n",
+                mode, threads, rooms, bookings / threads * threads, elapsed / 1_000_000);
+        console.printf("booked %d, on record %d, overlapping stays %d%n", booked.get(), recorded, overlaps);
+        if (overlaps > 0 || recorded != booked.get()) {
+            console.println("FAILED");
+            System.exit(1);
+        }
+        console.println("OK");
+        System.exit(0);
+    }
+}
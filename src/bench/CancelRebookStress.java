@@ -0,0 +1,155 @@
+package bench;
+
+import model.Customer;
+import model.EpochDays;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import service.CustomerService;
+import service.ReservationService;
+import service.ReservationService.BookingMode;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Many customers booking, cancelling and moving one-night stays on the same few nights, so a
+// night freed by one thread is rebooked by another while the first is still finishing its
+// cancellation. The threads stop together every batch of rounds, and the reservation store
+// must then count exactly the stays the threads hold. At the end every stay a thread holds
+// must also be on record, and no two stays of a room may overlap:
+//
+//   java -cp out bench.CancelRebookStress threads=16 rounds=2000000 batch=100 rooms=1 nights=2 mode=STRIPED_LOCKS
+//
+// Exits with status 1 if the check fails.
+public class CancelRebookStress {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "2000000"));
+        int batch = Integer.parseInt(options.getOrDefault("batch", "100"));
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "1"));
+        int nights = Integer.parseInt(options.getOrDefault("nights", "2"));
+        BookingMode mode = BookingMode.valueOf(options.getOrDefault("mode", "STRIPED_LOCKS"));
+
+        ReservationService reservations = ReservationService.getInstance();
+        CustomerService customers = CustomerService.getInstance();
+        reservations.setBookingMode(mode);
+        IRoom[] inventory = new IRoom[rooms];
+        for (int i = 0; i < rooms; i++) {
+            inventory[i] = new Room("C" + i, 10.0, RoomType.SINGLE);
+            reservations.registerRoom(inventory[i]);
+        }
+        Customer[] guests = new Customer[threads];
+        for (int t = 0; t < threads; t++) {
+            customers.registerCustomer("rebook" + t + "@example.com", "Rebook", String.valueOf(t));
+            guests[t] = customers.fetchCustomer("rebook" + t + "@example.com");
+        }
+
+        // conflicts are reported on stdout; keep them out of the results
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        int today = EpochDays.today();
+        // stays held across all threads, and the batches whose store count differed from it
+        AtomicLong holding = new AtomicLong();
+        AtomicLong miscounts = new AtomicLong();
+        CyclicBarrier batches = new CyclicBarrier(threads, () -> {
+            if (reservations.getActiveReservationCount() != holding.get()) miscounts.incrementAndGet();
+        });
+        long start = System.nanoTime();
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        List<Future<List<Reservation>>> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Customer guest = guests[t];
+            Random random = new Random(t);
+            running.add(clients.submit(() -> {
+                // the stays this thread believes it holds
+                List<Reservation> held = new ArrayList<>();
+                for (int k = 0; k < rounds / threads; k++) {
+                    if (k % batch == 0) batches.await();
+                    IRoom room = inventory[random.nextInt(rooms)];
+                    int night = today + random.nextInt(nights);
+                    int action = random.nextInt(3);
+                    if (action == 0 || held.isEmpty()) {
+                        Reservation res = reservations.bookRoomForCustomer(guest, room,
+                                EpochDays.toDate(night), EpochDays.toDate(night + 1));
+                        if (res != null) {
+                            held.add(res);
+                            holding.incrementAndGet();
+                        }
+                    } else if (action == 1) {
+                        Reservation res = held.remove(random.nextInt(held.size()));
+                        if (reservations.cancelReservation(guest, res.getRoom(), res.getCheckInDate()) == null) {
+                            throw new IllegalStateException("Lost " + res);
+                        }
+                        holding.decrementAndGet();
+                    } else {
+                        int i = random.nextInt(held.size());
+                        Reservation res = held.get(i);
+                        Reservation moved = reservations.modifyReservation(guest, res.getRoom(), res.getCheckInDate(),
+                                room, EpochDays.toDate(night), EpochDays.toDate(night + 1));
+                        if (moved != null) held.set(i, moved);
+                    }
+                }
+                return held;
+            }));
+        }
+        List<List<Reservation>> held = new ArrayList<>();
+        for (Future<List<Reservation>> client : running) held.add(client.get());
+        clients.shutdown();
+        long elapsed = System.nanoTime() - start;
+        System.setOut(console);
+
+        long expected = 0;
+        long recorded = 0;
+        long missing = 0;
+        Map<String, List<Reservation>> byRoom = new HashMap<>();
+        for (int t = 0; t < threads; t++) {
+            Collection<Reservation> own = reservations.fetchReservationsForCustomer(guests[t]);
+            expected += held.get(t).size();
+            recorded += own.size();
+            for (Reservation res : held.get(t)) {
+                if (!own.contains(res)) missing++;
+            }
+            for (Reservation res : own) {
+                byRoom.computeIfAbsent(res.getRoom().getRoomNumber(), r -> new ArrayList<>()).add(res);
+            }
+        }
+        long overlaps = 0;
+        for (List<Reservation> stays : byRoom.values()) {
+            stays.sort(Comparator.comparingInt(Reservation::getCheckInDay));
+            for (int i = 1; i < stays.size(); i++) {
+                if (stays.get(i).getCheckInDay() < stays.get(i - 1).getCheckOutDay()) overlaps++;
+            }
+        }
+        long stored = reservations.getActiveReservationCount();
+
+        console.printf("mode=%s threads=%d rooms=%d nights=%d rounds=%d in %d ms%n",
+                mode, threads, rooms, nights, rounds / threads * threads, elapsed / 1_000_000);
+        console.printf("held %d, on record %d, missing %d, in store %d, overlapping stays %d, miscounted batches %d%n",
+                expected, recorded, missing, stored, overlaps, miscounts.get());
+        if (missing > 0 || recorded != expected || stored != expected || overlaps > 0 || miscounts.get() > 0) {
+            console.println("FAILED");
+            System.exit(1);
+        }
+        console.println("OK");
+        System.exit(0);
+    }
+}
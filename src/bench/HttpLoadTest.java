@@ -0,0 +1,118 @@
+package bench;
+
+import api.AdminResource;
+import api.HotelHttpServer;
+import api.HotelResource;
+import metrics.Histogram;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Starts the HTTP front-end on a free localhost port and drives it with many concurrent
+// clients, one virtual thread each, for a fixed time:
+//
+//   java -cp out bench.HttpLoadTest <clients> <seconds> <rooms>
+//
+// Each client loops over search (60%), reserve (25%) and my-reservations (15%) requests.
+public class HttpLoadTest {
+
+    private static final int CUSTOMERS = 500;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rooms = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        PrintStream console = System.out;
+        // booking conflicts are reported on stdout by the service; keep them out of the results
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        HotelResource hotel = HotelResource.getInstance();
+        List<IRoom> inventory = new ArrayList<>();
+        for (int i = 0; i < rooms; i++) {
+            inventory.add(new Room("L" + i, i % 10 == 0 ? 0.0 : 80.0 + i % 120,
+                    i % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE));
+        }
+        AdminResource.getInstance().addRooms(inventory);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            hotel.createCustomer("load" + i + "@example.com", "Load", String.valueOf(i));
+        }
+
+        HotelHttpServer server = HotelHttpServer.start(0);
+        String base = "http://localhost:" + server.getPort();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        Histogram latency = new Histogram();
+        Map<Integer, AtomicLong> statuses = new ConcurrentHashMap<>();
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        LocalDate today = LocalDate.now();
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                workers.submit(() -> {
+                    Random random = new Random(seed);
+                    while (System.nanoTime() < deadline) {
+                        LocalDate checkIn = today.plusDays(1 + random.nextInt(300));
+                        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+                        String email = "load" + random.nextInt(CUSTOMERS) + "@example.com";
+                        int pick = random.nextInt(100);
+                        HttpRequest request;
+                        if (pick < 60) {
+                            request = HttpRequest.newBuilder(URI.create(base + "/rooms?checkIn=" + checkIn
+                                    + "&checkOut=" + checkOut)).GET().build();
+                        } else if (pick < 85) {
+                            String form = "email=" + email + "&room=L" + random.nextInt(rooms)
+                                    + "&checkIn=" + checkIn + "&checkOut=" + checkOut;
+                            request = HttpRequest.newBuilder(URI.create(base + "/reservations"))
+                                    .header("Content-Type", "application/x-www-form-urlencoded")
+                                    .POST(HttpRequest.BodyPublishers.ofString(form)).build();
+                        } else {
+                            request = HttpRequest.newBuilder(URI.create(base + "/reservations?email=" + email))
+                                    .GET().build();
+                        }
+
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            latency.record(System.nanoTime() - start);
+                            statuses.computeIfAbsent(response.statusCode(), k -> new AtomicLong()).incrementAndGet();
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+        server.stop();
+
+        System.setOut(console);
+        console.printf("clients=%d seconds=%d rooms=%d%n", clients, seconds, rooms);
+        console.printf("requests=%d (%.0f/s), transport failures=%d%n",
+                latency.getCount(), latency.getCount() / (double) seconds, failures.get());
+        console.printf("latency ms: p50 %.2f, p99 %.2f, p999 %.2f, max %.2f%n",
+                latency.percentile(0.50) / 1e6, latency.percentile(0.99) / 1e6,
+                latency.percentile(0.999) / 1e6, latency.getMax() / 1e6);
+        console.println("status codes: " + statuses);
+    }
+}
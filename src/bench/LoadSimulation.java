@@ -0,0 +1,121 @@
+package bench;
+
+import api.AdminResource;
+import api.HotelResource;
+import metrics.Histogram;
+import model.IRoom;
+import service.ReservationService;
+import service.ReservationService.BookingMode;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Reproducible load driver for sizing: registers customers and rooms through the API, then
+// fires a mix of searches, recommendations and bookings at HotelResource from many threads.
+//
+//   java -cp out bench.LoadSimulation customers=10000 rooms=5000 threads=8 ops=1000000 \
+//        mix=70:10:20 seed=42 mode=STRIPED_LOCKS
+//
+// mix is search:recommend:book in parts; mode is the ReservationService booking mode. The same
+// seed always produces the same requests.
+public class LoadSimulation {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int customers = Integer.parseInt(options.getOrDefault("customers", "10000"));
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "5000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        long ops = Long.parseLong(options.getOrDefault("ops", "1000000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        BookingMode mode = BookingMode.valueOf(options.getOrDefault("mode", "STRIPED_LOCKS"));
+        String[] parts = options.getOrDefault("mix", "70:10:20").split(":");
+        int search = Integer.parseInt(parts[0]);
+        int recommend = Integer.parseInt(parts[1]);
+        int total = search + recommend + Integer.parseInt(parts[2]);
+
+        PrintStream console = System.out;
+        // booking conflicts are reported on stdout by the service; keep them out of the results
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        ReservationService.getInstance().setBookingMode(mode);
+        HotelResource hotel = HotelResource.getInstance();
+        WorkloadGenerator generator = new WorkloadGenerator(seed);
+        long setupStart = System.nanoTime();
+        for (int i = 0; i < customers; i++) {
+            hotel.createCustomer(WorkloadGenerator.customerEmail(i), "Guest", String.valueOf(i));
+        }
+        List<IRoom> inventory = generator.rooms(rooms);
+        AdminResource.getInstance().addRooms(inventory);
+        long setupMillis = (System.nanoTime() - setupStart) / 1_000_000;
+
+        Histogram searchLatency = new Histogram();
+        Histogram recommendLatency = new Histogram();
+        Histogram bookLatency = new Histogram();
+        Histogram searchSizes = new Histogram();
+        AtomicLong conflicts = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        long perThread = ops / threads;
+        long runStart = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            WorkloadGenerator worker = generator.fork();
+            workers.add(pool.submit(() -> {
+                for (long i = 0; i < perThread; i++) {
+                    Date[] stay = worker.stay();
+                    int pick = worker.nextInt(total);
+                    long start = System.nanoTime();
+                    if (pick < search) {
+                        int found = hotel.searchRooms(stay[0], stay[1], 7, null).size();
+                        searchLatency.record(System.nanoTime() - start);
+                        searchSizes.record(found);
+                    } else if (pick < search + recommend) {
+                        hotel.searchRoomsWithRecommendations(stay[0], stay[1], 7, null);
+                        recommendLatency.record(System.nanoTime() - start);
+                    } else {
+                        IRoom room = inventory.get(worker.room(rooms));
+                        String email = WorkloadGenerator.customerEmail(worker.customer(customers));
+                        boolean booked = hotel.reserveRoom(email, room, stay[0], stay[1]) != null;
+                        bookLatency.record(System.nanoTime() - start);
+                        if (!booked) conflicts.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) worker.get();
+        pool.shutdown();
+        double seconds = (System.nanoTime() - runStart) / 1e9;
+
+        System.setOut(console);
+        console.printf("customers=%d rooms=%d threads=%d ops=%d mix=%s seed=%d mode=%s (setup %d ms)%n",
+                customers, rooms, threads, perThread * threads,
+                options.getOrDefault("mix", "70:10:20"), seed, mode, setupMillis);
+        console.printf("throughput: %.0f ops/s over %.2f s%n", perThread * threads / seconds, seconds);
+        print(console, "search", searchLatency);
+        print(console, "recommend", recommendLatency);
+        print(console, "book", bookLatency);
+        console.printf("search results: mean %.1f rooms, p50 %d%n", searchSizes.getMean(), searchSizes.percentile(0.5));
+        long bookings = bookLatency.getCount();
+        console.printf("booking conflicts: %d of %d (%.2f%%)%n",
+                conflicts.get(), bookings, bookings == 0 ? 0.0 : 100.0 * conflicts.get() / bookings);
+    }
+
+    private static void print(PrintStream out, String name, Histogram latency) {
+        out.printf("%-10s %9d calls  p50 %8.1f us  p99 %8.1f us  p999 %8.1f us  max %8.1f us%n",
+                name, latency.getCount(), latency.percentile(0.50) / 1e3, latency.percentile(0.99) / 1e3,
+                latency.percentile(0.999) / 1e3, latency.getMax() / 1e3);
+    }
+}
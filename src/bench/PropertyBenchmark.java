@@ -0,0 +1,81 @@
+package bench;
+
+import api.AdminResource;
+import api.HotelResource;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Booking throughput across sharded properties: each property has its own writer thread, so
+// throughput should grow with the number of properties up to the number of cores.
+//
+//   java -cp out bench.PropertyBenchmark properties=8 rooms=200 threads=16 seconds=10 seed=42
+//
+// Clients pick a property at random and book a random room for a random stay.
+public class PropertyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int properties = Integer.parseInt(options.getOrDefault("properties", "8"));
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "200"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        AdminResource admin = AdminResource.getInstance();
+        HotelResource hotel = HotelResource.getInstance();
+        WorkloadGenerator workload = new WorkloadGenerator(seed);
+        for (int p = 0; p < properties; p++) {
+            admin.addProperty("P" + p, "Property " + p, "City " + (p % 4));
+            admin.addRoomsToProperty("P" + p, workload.rooms(rooms));
+        }
+        int customers = 1000;
+        for (int c = 0; c < customers; c++) {
+            hotel.createCustomer(WorkloadGenerator.customerEmail(c), "Guest", String.valueOf(c));
+        }
+
+        // conflicts are reported on stdout; keep them out of the results
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        AtomicLong booked = new AtomicLong();
+        AtomicLong attempts = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        List<WorkloadGenerator> generators = new ArrayList<>();
+        for (int t = 0; t < threads; t++) generators.add(workload.fork());
+        for (WorkloadGenerator generator : generators) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    String property = "P" + generator.nextInt(properties);
+                    String room = WorkloadGenerator.roomNumber(generator.room(rooms));
+                    Date[] stay = generator.stay();
+                    if (hotel.reserveRoomAt(property, WorkloadGenerator.customerEmail(generator.customer(customers)),
+                            room, stay[0], stay[1]) != null) {
+                        booked.incrementAndGet();
+                    }
+                    attempts.incrementAndGet();
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        System.setOut(console);
+
+        console.printf("properties=%d rooms=%d threads=%d cores=%d%n", properties, rooms, threads,
+                Runtime.getRuntime().availableProcessors());
+        console.printf("attempts %d (%.0f/s), booked %d%n", attempts.get(), attempts.get() / (double) seconds, booked.get());
+    }
+}
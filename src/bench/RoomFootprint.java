@@ -0,0 +1,70 @@
+package bench;
+
+import model.EpochDays;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import service.ReservationService;
+
+import java.lang.ref.Reference;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+// Heap taken by a large room inventory, and the time of a filtered scan over it:
+//
+//   java -Xmx4g -cp out bench.RoomFootprint rooms=1000000
+//
+// First as plain Room objects in a HashMap<String, IRoom>, for reference, then registered in
+// ReservationService (whose figure includes each room's availability calendar).
+public class RoomFootprint {
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "1000000"));
+
+        long before = usedHeap();
+        Map<String, IRoom> objects = new HashMap<>();
+        for (int i = 0; i < rooms; i++) {
+            IRoom room = room(i);
+            objects.put(room.getRoomNumber(), room);
+        }
+        long objectBytes = usedHeap() - before;
+        Reference.reachabilityFence(objects);
+        System.out.printf("HashMap<String, IRoom>: %,d bytes (%d per room)%n", objectBytes, objectBytes / rooms);
+        objects = null;
+
+        ReservationService service = ReservationService.getInstance();
+        before = usedHeap();
+        for (int i = 0; i < rooms; i++) service.registerRoom(room(i));
+        long serviceBytes = usedHeap() - before;
+        System.out.printf("ReservationService:     %,d bytes (%d per room, calendars included)%n",
+                serviceBytes, serviceBytes / rooms);
+
+        Date checkIn = EpochDays.toDate(EpochDays.today() + 30);
+        Date checkOut = EpochDays.toDate(EpochDays.today() + 32);
+        long best = Long.MAX_VALUE;
+        int found = 0;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            found = service.searchRoomsForDisplay(checkIn, checkOut, false, RoomType.DOUBLE, null, null).size();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("paid DOUBLE search: %d rooms in %.1f ms (best of 5)%n", found, best / 1e6);
+    }
+
+    private static IRoom room(int i) {
+        return new Room(String.valueOf(100000 + i), i % 10 == 0 ? 0.0 : 50.0 + i % 200,
+                i % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
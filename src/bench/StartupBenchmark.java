@@ -0,0 +1,120 @@
+package bench;
+
+import model.Customer;
+import model.EpochDays;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import service.CustomerService;
+import service.ReservationJournal;
+import service.ReservationService;
+import service.ReservationSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Start-up time from a journal replay against a snapshot load, for the same history:
+//
+//   java -Xmx4g -cp out bench.StartupBenchmark rooms=10000 reservations=1000000 dir=/tmp
+//
+// Writes the history once through a journal and as a snapshot, then restores each one in a
+// fresh JVM, since the services are singletons, and reports the restore times.
+public class StartupBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        Path dir = Paths.get(options.getOrDefault("dir", System.getProperty("java.io.tmpdir")));
+        Path journalFile = dir.resolve("startup-benchmark.journal");
+        Path snapshotFile = dir.resolve("startup-benchmark.snapshot");
+        String restore = options.get("restore");
+        if (restore != null) {
+            restore(restore, journalFile, snapshotFile);
+            return;
+        }
+        int rooms = Integer.parseInt(options.getOrDefault("rooms", "10000"));
+        int reservations = Integer.parseInt(options.getOrDefault("reservations", "1000000"));
+
+        long start = System.nanoTime();
+        generate(rooms, reservations, journalFile, snapshotFile);
+        System.out.printf("rooms=%d reservations=%d generated in %d ms; journal %,d bytes, snapshot %,d bytes%n",
+                rooms, reservations, (System.nanoTime() - start) / 1_000_000,
+                Files.size(journalFile), Files.size(snapshotFile));
+        for (String source : new String[]{"journal", "snapshot"}) {
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.add("-Xmx" + Runtime.getRuntime().maxMemory() / (1 << 20) + "m");
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(StartupBenchmark.class.getName());
+            command.add("restore=" + source);
+            command.add("dir=" + dir);
+            Process child = new ProcessBuilder(command).inheritIO().start();
+            if (child.waitFor() != 0) throw new IOException("Restoring from the " + source + " failed");
+        }
+        Files.deleteIfExists(journalFile);
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    // every room gets the same number of two-night stays, back to back in the past
+    private static void generate(int rooms, int reservations, Path journalFile, Path snapshotFile) throws IOException {
+        CustomerService customerService = CustomerService.getInstance();
+        ReservationService reservationService = ReservationService.getInstance();
+        Files.deleteIfExists(journalFile);
+        ReservationJournal journal = ReservationJournal.open(journalFile, ReservationJournal.DurabilityMode.ASYNC);
+        customerService.setJournal(journal);
+        reservationService.setJournal(journal);
+
+        Customer[] customers = new Customer[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerService.registerCustomer("customer" + i + "@example.com", "Customer", String.valueOf(i));
+            customers[i] = customerService.fetchCustomer("customer" + i + "@example.com");
+        }
+        int perRoom = Math.max(1, reservations / rooms);
+        int first = EpochDays.today() - 3 * perRoom - 1;
+        for (int r = 0; r < rooms; r++) {
+            IRoom room = new Room("R" + r, 50.0 + r % 200, r % 2 == 0 ? RoomType.SINGLE : RoomType.DOUBLE);
+            reservationService.registerRoom(room);
+            for (int k = 0; k < perRoom; k++) {
+                int checkIn = first + 3 * k;
+                reservationService.bookRoomForCustomer(customers[(r + k) % CUSTOMERS], room,
+                        EpochDays.toDate(checkIn), EpochDays.toDate(checkIn + 2));
+            }
+        }
+        reservationService.setJournal(null);
+        customerService.setJournal(null);
+        journal.close();
+        ReservationSnapshot.write(snapshotFile, customerService, reservationService);
+    }
+
+    private static void restore(String source, Path journalFile, Path snapshotFile) throws IOException {
+        CustomerService customerService = CustomerService.getInstance();
+        ReservationService reservationService = ReservationService.getInstance();
+        long start = System.nanoTime();
+        if (source.equals("snapshot")) {
+            ReservationSnapshot.load(snapshotFile, customerService, reservationService);
+        } else {
+            try (ReservationJournal journal = ReservationJournal.open(journalFile, ReservationJournal.DurabilityMode.ASYNC)) {
+                journal.replay(customerService, reservationService);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long restored = 0;
+        for (Customer customer : customerService.listAllCustomers()) {
+            restored += reservationService.fetchReservationsForCustomer(customer).size();
+        }
+        System.out.printf("%-8s restored %d rooms and %d reservations in %d ms%n", source,
+                reservationService.listAllRooms().size(), restored, elapsed / 1_000_000);
+    }
+}
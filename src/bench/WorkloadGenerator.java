@@ -0,0 +1,92 @@
+package bench;
+
+import model.EpochDays;
+import model.FreeRoom;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+// Seeded synthetic hotel data with roughly realistic shape: most stays are booked a few
+// weeks ahead, weekend check-ins are over-represented, short stays dominate, and a small
+// set of rooms is far more popular than the rest.
+public class WorkloadGenerator {
+
+    // cumulative weights for stays of 1..7 nights
+    private static final int[] STAY_WEIGHTS = {35, 60, 75, 83, 88, 92, 100};
+    private static final double MEAN_LEAD_DAYS = 30.0;
+    private static final int MAX_LEAD_DAYS = 364;
+
+    private final Random random;
+    private final LocalDate today = LocalDate.now();
+
+    public WorkloadGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // a private generator for one worker thread, derived from this one's seed sequence
+    public WorkloadGenerator fork() {
+        return new WorkloadGenerator(random.nextLong());
+    }
+
+    public static String customerEmail(int index) {
+        return "guest" + index + "@example.com";
+    }
+
+    public static String roomNumber(int index) {
+        return String.valueOf(1000 + index);
+    }
+
+    // one in ten rooms is free of charge, doubles cost more than singles
+    public List<IRoom> rooms(int count) {
+        List<IRoom> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            RoomType type = random.nextInt(3) == 0 ? RoomType.DOUBLE : RoomType.SINGLE;
+            if (random.nextInt(10) == 0) {
+                rooms.add(new FreeRoom(roomNumber(i), type));
+            } else {
+                double base = type == RoomType.DOUBLE ? 180.0 : 110.0;
+                rooms.add(new Room(roomNumber(i), base + random.nextInt(80) - 40 + 0.99, type));
+            }
+        }
+        return rooms;
+    }
+
+    public int customer(int customers) {
+        return random.nextInt(customers);
+    }
+
+    // skewed popularity: low indexes are picked much more often
+    public int room(int rooms) {
+        double u = random.nextDouble();
+        return (int) (rooms * u * u);
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    // [checkIn, checkOut) of a requested stay
+    public Date[] stay() {
+        int lead = (int) Math.min(MAX_LEAD_DAYS, 1 + (-Math.log(1 - random.nextDouble()) * MEAN_LEAD_DAYS));
+        LocalDate checkIn = today.plusDays(lead);
+        // two in five requests move to the nearest Friday
+        if (random.nextInt(5) < 2) {
+            int toFriday = DayOfWeek.FRIDAY.getValue() - checkIn.getDayOfWeek().getValue();
+            if (toFriday < 0) toFriday += 7;
+            checkIn = checkIn.plusDays(Math.min(toFriday, MAX_LEAD_DAYS - lead));
+        }
+        int pick = random.nextInt(100);
+        int nights = 1;
+        while (STAY_WEIGHTS[nights - 1] <= pick) nights++;
+
+        int checkInDay = (int) checkIn.toEpochDay();
+        return new Date[]{EpochDays.toDate(checkInDay), EpochDays.toDate(checkInDay + nights)};
+    }
+}
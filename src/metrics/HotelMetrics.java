@@ -0,0 +1,113 @@
+package metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Process-wide counters and histograms for the API layer. Everything recorded on a
+// request path is an atomic update on preallocated state.
+public final class HotelMetrics {
+
+    private static final HotelMetrics instance = new HotelMetrics();
+
+    private final Operation[] operations = Operation.values();
+    private final Histogram[] latencies = new Histogram[operations.length];
+    private final Histogram searchResultSizes = new Histogram();
+    private final AtomicLong bookingConflicts = new AtomicLong();
+    private final AtomicLong recommendationProbes = new AtomicLong();
+    private final AtomicLong searchCacheHits = new AtomicLong();
+    private final AtomicLong searchCacheMisses = new AtomicLong();
+
+    private HotelMetrics() {
+        for (int i = 0; i < latencies.length; i++) latencies[i] = new Histogram();
+    }
+
+    public static HotelMetrics getInstance() {
+        return instance;
+    }
+
+    // startNanos is the System.nanoTime() taken when the call began
+    public void recordLatency(Operation operation, long startNanos) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public void recordSearchResults(int size) {
+        searchResultSizes.record(size);
+    }
+
+    public void recordBookingConflict() {
+        bookingConflicts.incrementAndGet();
+    }
+
+    // rooms examined for an alternative slot by the recommendation search
+    public void recordRecommendationProbes(int rooms) {
+        recommendationProbes.addAndGet(rooms);
+    }
+
+    public void recordSearchCacheHit() {
+        searchCacheHits.incrementAndGet();
+    }
+
+    public void recordSearchCacheMiss() {
+        searchCacheMisses.incrementAndGet();
+    }
+
+    public Histogram getLatency(Operation operation) { return latencies[operation.ordinal()]; }
+    public Histogram getSearchResultSizes() { return searchResultSizes; }
+    public long getBookingConflicts() { return bookingConflicts.get(); }
+    public long getRecommendationProbes() { return recommendationProbes.get(); }
+    public long getSearchCacheHits() { return searchCacheHits.get(); }
+    public long getSearchCacheMisses() { return searchCacheMisses.get(); }
+
+    // human-readable table; latencies in microseconds
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-46s %9s %10s %10s %10s %10s%n",
+                "Operation", "calls", "p50 us", "p99 us", "p999 us", "max us"));
+        for (Operation op : operations) {
+            Histogram h = latencies[op.ordinal()];
+            if (h.getCount() == 0) continue;
+            out.append(String.format("%-46s %9d %10.1f %10.1f %10.1f %10.1f%n", op.getLabel(), h.getCount(),
+                    micros(h.percentile(0.50)), micros(h.percentile(0.99)),
+                    micros(h.percentile(0.999)), micros(h.getMax())));
+        }
+        out.append(String.format("Booking conflicts: %d%n", getBookingConflicts()));
+        out.append(String.format("Recommendation probes: %d%n", getRecommendationProbes()));
+        out.append(String.format("Search cache: %d hits, %d misses%n", getSearchCacheHits(), getSearchCacheMisses()));
+        out.append(String.format("Search result size: mean %.1f, p50 %d, p99 %d, max %d%n",
+                searchResultSizes.getMean(), searchResultSizes.percentile(0.50),
+                searchResultSizes.percentile(0.99), searchResultSizes.getMax()));
+        return out.toString();
+    }
+
+    // machine-readable dump; latencies in nanoseconds
+    public String toJson() {
+        StringBuilder out = new StringBuilder("{\n  \"operations\": {");
+        String separator = "\n";
+        for (Operation op : operations) {
+            Histogram h = latencies[op.ordinal()];
+            out.append(separator).append("    \"").append(op.getLabel()).append("\": ");
+            appendHistogram(out, h);
+            separator = ",\n";
+        }
+        out.append("\n  },\n  \"bookingConflicts\": ").append(getBookingConflicts())
+                .append(",\n  \"recommendationProbes\": ").append(getRecommendationProbes())
+                .append(",\n  \"searchCacheHits\": ").append(getSearchCacheHits())
+                .append(",\n  \"searchCacheMisses\": ").append(getSearchCacheMisses())
+                .append(",\n  \"searchResultSizes\": ");
+        appendHistogram(out, searchResultSizes);
+        return out.append("\n}\n").toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, Histogram h) {
+        out.append("{\"count\": ").append(h.getCount())
+                .append(", \"mean\": ").append(String.format(Locale.ROOT, "%.1f", h.getMean()))
+                .append(", \"p50\": ").append(h.percentile(0.50))
+                .append(", \"p99\": ").append(h.percentile(0.99))
+                .append(", \"p999\": ").append(h.percentile(0.999))
+                .append(", \"max\": ").append(h.getMax()).append('}');
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+}
@@ -0,0 +1,51 @@
+package metrics;
+
+// every public entry point of HotelResource and AdminResource
+public enum Operation {
+    GET_CUSTOMER_BY_EMAIL("HotelResource.getCustomerByEmail"),
+    CREATE_CUSTOMER("HotelResource.createCustomer"),
+    GET_ROOM_BY_NUMBER("HotelResource.getRoomByNumber"),
+    SEARCH_ROOMS("HotelResource.searchRooms"),
+    SEARCH_ROOMS_WITH_RECOMMENDATIONS("HotelResource.searchRoomsWithRecommendations"),
+    SEARCH_ROOMS_PAGE("HotelResource.searchRoomsPage"),
+    STREAM_AVAILABLE_ROOMS("HotelResource.streamAvailableRooms"),
+    FIND_CHEAPEST_ROOMS("HotelResource.findCheapestAvailableRooms"),
+    RESERVE_ROOM("HotelResource.reserveRoom"),
+    RESERVE_ROOMS("HotelResource.reserveRooms"),
+    GET_CUSTOMER_RESERVATIONS("HotelResource.getCustomerReservations"),
+    CANCEL_RESERVATION("HotelResource.cancelReservation"),
+    MODIFY_RESERVATION("HotelResource.modifyReservation"),
+    SEARCH_CITY("HotelResource.searchRoomsInCity"),
+    RESERVE_ROOM_AT("HotelResource.reserveRoomAt"),
+    CANCEL_RESERVATION_AT("HotelResource.cancelReservationAt"),
+    GET_CUSTOMER_RESERVATIONS_BY_PROPERTY("HotelResource.getCustomerReservationsByProperty"),
+    RETRIEVE_CUSTOMER("AdminResource.retrieveCustomer"),
+    ADD_ROOMS("AdminResource.addRooms"),
+    LIST_ROOMS("AdminResource.listRooms"),
+    LIST_CUSTOMERS("AdminResource.listCustomers"),
+    LIST_ROOMS_PAGE("AdminResource.listRoomsPage"),
+    LIST_CUSTOMERS_PAGE("AdminResource.listCustomersPage"),
+    STREAM_ROOMS("AdminResource.streamRooms"),
+    STREAM_CUSTOMERS("AdminResource.streamCustomers"),
+    DISPLAY_RESERVATIONS("AdminResource.displayReservations"),
+    COMPACT_RESERVATIONS("AdminResource.compactReservations"),
+    RESERVATION_SUMMARY("AdminResource.getReservationSummary"),
+    OCCUPANCY_REPORT("AdminResource.getOccupancyReport"),
+    OCCUPIED_ROOMS("AdminResource.getOccupiedRooms"),
+    REVENUE_REPORT("AdminResource.getRevenueReport"),
+    CUSTOMER_REVENUE("AdminResource.getCustomerRevenueCents"),
+    GET_ROOM_NUMBER("AdminResource.getRoomNumber"),
+    POPULATE_TEST_DATA("AdminResource.populateTestData"),
+    ADD_PROPERTY("AdminResource.addProperty"),
+    ADD_PROPERTY_ROOMS("AdminResource.addRoomsToProperty"),
+    GET_PROPERTY("AdminResource.getProperty"),
+    LIST_PROPERTIES("AdminResource.listProperties");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() { return label; }
+}
@@ -0,0 +1,77 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+// Dates as whole days since 1970-01-01 in the system time zone,
+// which is the granularity every stay is booked at
+public final class EpochDays {
+
+    // what parse returns for anything that is not a real yyyy-MM-dd date
+    public static final int NOT_A_DATE = Integer.MIN_VALUE;
+
+    private EpochDays() {}
+
+    // Strict yyyy-MM-dd, read straight off the characters with no formatter and no garbage;
+    // NOT_A_DATE if it is malformed or names a day that does not exist (2025-02-29).
+    public static int parse(CharSequence text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') return NOT_A_DATE;
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        for (int i = 0; i < 10; i++) {
+            if (i == 4 || i == 7) continue;
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return NOT_A_DATE;
+            if (i < 4) year = year * 10 + digit;
+            else if (i < 7) month = month * 10 + digit;
+            else day = day * 10 + digit;
+        }
+        return ofCivil(year, month, day);
+    }
+
+    // the same for ASCII bytes in [from, to), as read from a file
+    public static int parse(byte[] ascii, int from, int to) {
+        if (to - from != 10 || ascii[from + 4] != '-' || ascii[from + 7] != '-') return NOT_A_DATE;
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        for (int i = 0; i < 10; i++) {
+            if (i == 4 || i == 7) continue;
+            int digit = ascii[from + i] - '0';
+            if (digit < 0 || digit > 9) return NOT_A_DATE;
+            if (i < 4) year = year * 10 + digit;
+            else if (i < 7) month = month * 10 + digit;
+            else day = day * 10 + digit;
+        }
+        return ofCivil(year, month, day);
+    }
+
+    // days since 1970-01-01 of a proleptic Gregorian date, or NOT_A_DATE if there is no such day
+    private static int ofCivil(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1) return NOT_A_DATE;
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        int length = month == 2 ? (leap ? 29 : 28) : (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+        if (day > length) return NOT_A_DATE;
+        // count from March, so the leap day is the last day of the counted year
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    public static int of(Date date) {
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    public static Date toDate(int epochDay) {
+        return Date.from(LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    public static int today() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+}
@@ -3,6 +3,10 @@ package model;
 public interface IRoom {
     String getRoomNumber();
     Double getRoomPrice();
+    // the nightly price in whole cents; every sum of money is kept in these, never in doubles
+    default long getRoomPriceCents() {
+        return getRoomPrice() == null ? 0 : Math.round(getRoomPrice() * 100);
+    }
     RoomType getRoomType();
     boolean isFree();
 }
@@ -0,0 +1,49 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+// occupancy over the nights [from, to) for one room type, or all rooms when type is null
+public class OccupancyReport {
+    private final int fromDay;
+    private final int toDay;
+    private final RoomType type;
+    private final int rooms;
+    private final long roomNights;
+    private final int peakDay;
+    private final int peakRooms;
+
+    public OccupancyReport(int fromDay, int toDay, RoomType type, int rooms, long roomNights,
+                           int peakDay, int peakRooms) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.type = type;
+        this.rooms = rooms;
+        this.roomNights = roomNights;
+        this.peakDay = peakDay;
+        this.peakRooms = peakRooms;
+    }
+
+    public Date getFrom() { return EpochDays.toDate(fromDay); }
+    public Date getTo() { return EpochDays.toDate(toDay); }
+    public int getNights() { return Math.max(0, toDay - fromDay); }
+    public RoomType getRoomType() { return type; }
+    // rooms registered now, of the type
+    public int getRooms() { return rooms; }
+    public long getOccupiedRoomNights() { return roomNights; }
+    // occupied share of every room on every night, 0..1
+    public double getOccupancyRate() {
+        long available = (long) rooms * getNights();
+        return available == 0 ? 0.0 : (double) roomNights / available;
+    }
+    // first night with the most rooms occupied
+    public Date getPeakNight() { return EpochDays.toDate(peakDay); }
+    public int getPeakRooms() { return peakRooms; }
+
+    @Override
+    public String toString() {
+        return String.format("%-6s %d rooms, %d nights: %d room-nights occupied (%.1f%%), peak %d rooms on %s",
+                type == null ? "ALL" : type, rooms, getNights(), roomNights, 100 * getOccupancyRate(),
+                peakRooms, LocalDate.ofEpochDay(peakDay));
+    }
+}
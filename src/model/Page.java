@@ -0,0 +1,36 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+// one page of a listing in key order; pass getNextCursor() back to get the page after it
+public class Page<T> {
+    // a caller cannot ask for more than this in one go
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    // Takes up to pageSize items, reading at most one more to know whether another page follows.
+    // The cursor is the key of the last item returned.
+    public static <T> Page<T> of(Iterator<T> source, int pageSize, Function<? super T, String> keyOf) {
+        int size = Math.max(1, Math.min(MAX_PAGE_SIZE, pageSize));
+        List<T> items = new ArrayList<>(size);
+        while (items.size() < size && source.hasNext()) items.add(source.next());
+        String next = source.hasNext() && !items.isEmpty() ? keyOf.apply(items.get(items.size() - 1)) : null;
+        return new Page<>(items, next);
+    }
+
+    public List<T> getItems() { return items; }
+    // null on the last page
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,39 @@
+package model;
+
+import java.util.Objects;
+
+// one hotel; rooms and their bookings belong to exactly one property
+public class Property {
+    private final String id;
+    private final String name;
+    private final String city;
+
+    public Property(String id, String name, String city) {
+        if (id == null || id.isBlank()) throw new IllegalArgumentException("Property id is required");
+        if (city == null || city.isBlank()) throw new IllegalArgumentException("City is required");
+        this.id = id.trim();
+        this.name = name;
+        this.city = city.trim();
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public String getCity() { return city; }
+
+    @Override
+    public String toString() {
+        return "Property: " + id + ", Name: " + name + ", City: " + city;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Property)) return false;
+        return id.equals(((Property) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
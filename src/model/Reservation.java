@@ -6,28 +6,35 @@ import java.util.Objects;
 public class Reservation {
     private final Customer customer;
     private final IRoom room;
-    private final Date checkInDate;
-    private final Date checkOutDate;
+    // stay kept as epoch days; Dates are only built for callers that ask for them
+    private final int checkInDay;
+    private final int checkOutDay;
 
     public Reservation(Customer customer, IRoom room, Date checkInDate, Date checkOutDate) {
+        this(customer, room, EpochDays.of(checkInDate), EpochDays.of(checkOutDate));
+    }
+
+    public Reservation(Customer customer, IRoom room, int checkInDay, int checkOutDay) {
         this.customer = customer;
         this.room = room;
-        this.checkInDate = new Date(checkInDate.getTime());
-        this.checkOutDate = new Date(checkOutDate.getTime());
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
     }
 
     public Customer getCustomer() { return customer; }
     public IRoom getRoom() { return room; }
-    public Date getCheckInDate() { return new Date(checkInDate.getTime()); }
-    public Date getCheckOutDate() { return new Date(checkOutDate.getTime()); }
+    public Date getCheckInDate() { return EpochDays.toDate(checkInDay); }
+    public Date getCheckOutDate() { return EpochDays.toDate(checkOutDay); }
+    public int getCheckInDay() { return checkInDay; }
+    public int getCheckOutDay() { return checkOutDay; }
 
     @Override
     public String toString() {
         return "Reservation:\n" +
                 "Customer: First Name: " + customer.getFirstName() + ", Last Name: " + customer.getLastName() + ", Email: " + customer.getEmail() + "\n" +
                 "Room: " + room + "\n" +
-                "Check-In Date: " + checkInDate + "\n" +
-                "Check-Out Date: " + checkOutDate;
+                "Check-In Date: " + getCheckInDate() + "\n" +
+                "Check-Out Date: " + getCheckOutDate();
     }
 
     @Override
@@ -37,12 +44,12 @@ public class Reservation {
         Reservation that = (Reservation) o;
         return customer.equals(that.customer) &&
                 room.equals(that.room) &&
-                checkInDate.equals(that.checkInDate) &&
-                checkOutDate.equals(that.checkOutDate);
+                checkInDay == that.checkInDay &&
+                checkOutDay == that.checkOutDay;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(customer, room, checkInDate, checkOutDate);
+        return Objects.hash(customer, room, checkInDay, checkOutDay);
     }
 }
@@ -0,0 +1,52 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+// revenue over the nights [from, to) for one room type, or all rooms when type is null;
+// money is in whole cents throughout
+public class RevenueReport {
+    private final int fromDay;
+    private final int toDay;
+    private final RoomType type;
+    private final int rooms;
+    private final long roomNights;
+    private final long revenueCents;
+
+    public RevenueReport(int fromDay, int toDay, RoomType type, int rooms, long roomNights, long revenueCents) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        this.type = type;
+        this.rooms = rooms;
+        this.roomNights = roomNights;
+        this.revenueCents = revenueCents;
+    }
+
+    public Date getFrom() { return EpochDays.toDate(fromDay); }
+    public Date getTo() { return EpochDays.toDate(toDay); }
+    public int getNights() { return Math.max(0, toDay - fromDay); }
+    public RoomType getRoomType() { return type; }
+    public int getRooms() { return rooms; }
+    public long getOccupiedRoomNights() { return roomNights; }
+    public long getRevenueCents() { return revenueCents; }
+    // average rate of an occupied room-night, rounded down to the cent
+    public long getAverageRateCents() { return roomNights == 0 ? 0 : revenueCents / roomNights; }
+    // revenue per available room-night, rounded down to the cent
+    public long getRevenuePerAvailableRoomCents() {
+        long available = (long) rooms * getNights();
+        return available == 0 ? 0 : revenueCents / available;
+    }
+
+    // cents as dollars and cents, e.g. 123456 -> "$1234.56"
+    public static String formatCents(long cents) {
+        return (cents < 0 ? "-$" : "$") + Math.abs(cents / 100) + String.format(".%02d", Math.abs(cents % 100));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-6s %s to %s: revenue %s over %d room-nights, average rate %s, per available room %s",
+                type == null ? "ALL" : type, LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay),
+                formatCents(revenueCents), roomNights, formatCents(getAverageRateCents()),
+                formatCents(getRevenuePerAvailableRoomCents()));
+    }
+}
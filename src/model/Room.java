@@ -5,11 +5,14 @@ import java.util.Objects;
 public class Room implements IRoom {
     private final String roomNumber;
     private final Double price;
+    // price rounded to cents once, for searches and revenue
+    private final long priceCents;
     private final RoomType roomType;
 
     public Room(String roomNumber, Double price, RoomType roomType) {
         this.roomNumber = roomNumber;
         this.price = price;
+        this.priceCents = price == null ? 0 : Math.round(price * 100);
         this.roomType = roomType;
     }
 
@@ -19,6 +22,9 @@ public class Room implements IRoom {
     @Override
     public Double getRoomPrice() { return price; }
 
+    @Override
+    public long getRoomPriceCents() { return priceCents; }
+
     @Override
     public RoomType getRoomType() { return roomType; }
 
@@ -0,0 +1,235 @@
+package service;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongPredicate;
+
+// Bookings as commands in a preallocated ring buffer, processed by three stages, each one
+// thread that follows the one before it through the ring:
+//   book    - takes the nights on the room calendars, one command after another, no locks
+//   journal - writes every stay the book stage took since its last pass, with one fsync
+//   notify  - makes the stays visible, tells the listeners and completes the callers' futures
+// Producers claim a sequence number, fill the slot it maps to and mark it published. A slot
+// is reused only once the notify stage is done with it, so a full ring makes producers wait.
+// An idle stage spins briefly, then parks until the stage before it, or a producer, wakes it.
+final class BookingPipeline {
+
+    // set in claimed by close; sequences claimed after it are refused
+    private static final long CLOSED = 1L << 62;
+
+    // one booking command and, as it moves through the stages, its outcome
+    private static final class Slot {
+        Customer customer;
+        IRoom room;
+        int checkInDay;
+        int checkOutDay;
+        CompletableFuture<Reservation> future;
+        Reservation result;
+        RuntimeException error;
+    }
+
+    // a stage's thread, and whether it is parked or about to be
+    private static final class Stage {
+        final Thread thread;
+        volatile boolean sleeping;
+
+        Stage(String name, Runnable loop) {
+            thread = new Thread(loop, name);
+            thread.setDaemon(true);
+        }
+
+        void wake() {
+            if (sleeping) LockSupport.unpark(thread);
+        }
+    }
+
+    private final ReservationService service;
+    private final Slot[] slots;
+    private final int mask;
+    // sequence published in each slot; a stage may read a slot once it holds that slot's sequence
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    // last sequence each stage has finished
+    private final AtomicLong booked = new AtomicLong(-1);
+    private final AtomicLong journaled = new AtomicLong(-1);
+    private final AtomicLong notified = new AtomicLong(-1);
+    // last sequence claimed before close; the stages stop once they are past it
+    private volatile long stopAt = Long.MAX_VALUE;
+    private final Stage booker;
+    private final Stage journaler;
+    private final Stage notifier;
+
+    BookingPipeline(ReservationService service, int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("Capacity must be a power of two");
+        this.service = service;
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+        booker = new Stage("booking-pipeline-book", this::bookStage);
+        journaler = new Stage("booking-pipeline-journal", this::journalStage);
+        notifier = new Stage("booking-pipeline-notify", this::notifyStage);
+        booker.thread.start();
+        journaler.thread.start();
+        notifier.thread.start();
+    }
+
+    // null once the pipeline is closed; the caller then books directly
+    CompletableFuture<Reservation> submit(Customer customer, IRoom room, int checkInDay, int checkOutDay) {
+        long sequence = claimed.incrementAndGet();
+        if ((sequence & CLOSED) != 0) return null;
+        // the slot is still in use by a command one lap behind
+        for (int idle = 0; sequence - slots.length > notified.get(); idle++) waitForSlot(idle);
+
+        Slot slot = slots[(int) sequence & mask];
+        CompletableFuture<Reservation> future = new CompletableFuture<>();
+        slot.customer = customer;
+        slot.room = room;
+        slot.checkInDay = checkInDay;
+        slot.checkOutDay = checkOutDay;
+        slot.future = future;
+        slot.result = null;
+        slot.error = null;
+        published.set((int) sequence & mask, sequence);
+        booker.wake();
+        return future;
+    }
+
+    // Refuses new commands, lets the stages finish the ones already claimed and waits for
+    // their threads to end, so every booking taken so far is journaled and published.
+    void close() {
+        long last = claimed.getAndAdd(CLOSED);
+        if ((last & CLOSED) != 0) return;
+        stopAt = last;
+        boolean interrupted = false;
+        for (Stage stage : new Stage[]{booker, journaler, notifier}) {
+            LockSupport.unpark(stage.thread);
+            while (true) {
+                try {
+                    stage.thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void bookStage() {
+        long next = 0;
+        while (await(booker, next, s -> published.get((int) s & mask) == s)) {
+            long last = next;
+            while (published.get((int) (last + 1) & mask) == last + 1) last++;
+            for (long s = next; s <= last; s++) {
+                Slot slot = slots[(int) s & mask];
+                try {
+                    slot.result = service.holdStay(slot.customer, slot.room, slot.checkInDay, slot.checkOutDay);
+                } catch (RuntimeException e) {
+                    slot.error = e;
+                }
+            }
+            booked.set(last);
+            journaler.wake();
+            next = last + 1;
+        }
+    }
+
+    private void journalStage() {
+        long next = 0;
+        List<Reservation> batch = new ArrayList<>();
+        while (await(journaler, next, s -> booked.get() >= s)) {
+            long last = booked.get();
+            ReservationJournal journal = service.getJournal();
+            if (journal != null) {
+                batch.clear();
+                for (long s = next; s <= last; s++) {
+                    Reservation res = slots[(int) s & mask].result;
+                    if (res != null) batch.add(res);
+                }
+                try {
+                    if (!batch.isEmpty()) journal.logBookings(batch);
+                } catch (RuntimeException e) {
+                    // none of the batch is on record: fail it and give its nights back
+                    for (long s = next; s <= last; s++) {
+                        Slot slot = slots[(int) s & mask];
+                        if (slot.result == null) continue;
+                        service.releaseHeld(slot.result);
+                        slot.error = e;
+                    }
+                }
+            }
+            journaled.set(last);
+            notifier.wake();
+            next = last + 1;
+        }
+    }
+
+    private void notifyStage() {
+        long next = 0;
+        while (await(notifier, next, s -> journaled.get() >= s)) {
+            long last = journaled.get();
+            for (long s = next; s <= last; s++) {
+                Slot slot = slots[(int) s & mask];
+                CompletableFuture<Reservation> future = slot.future;
+                Reservation result = slot.result;
+                RuntimeException error = slot.error;
+                slot.customer = null;
+                slot.room = null;
+                slot.future = null;
+                slot.result = null;
+                slot.error = null;
+                if (error != null) {
+                    future.completeExceptionally(error);
+                    continue;
+                }
+                try {
+                    if (result != null) service.publishStay(result);
+                    future.complete(result);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+            notified.set(last);
+            next = last + 1;
+        }
+    }
+
+    // Waits until the command at sequence next is ready for the stage: spins briefly for a
+    // quick hand-off under load, then yields, then parks until woken. The stage announces
+    // that it sleeps before it checks one last time, so a wake-up cannot be missed. False
+    // once the pipeline is closed and the stage has finished every command claimed before.
+    private boolean await(Stage stage, long next, LongPredicate ready) {
+        for (int rounds = 0; !ready.test(next); rounds++) {
+            if (next > stopAt) return false;
+            if (rounds < 100) {
+                Thread.onSpinWait();
+            } else if (rounds < 200) {
+                Thread.yield();
+            } else {
+                stage.sleeping = true;
+                if (!ready.test(next) && next <= stopAt) LockSupport.park(this);
+                stage.sleeping = false;
+            }
+        }
+        return true;
+    }
+
+    // a producer waits for a full ring to drain; only ever briefly, so it just naps
+    private static void waitForSlot(int rounds) {
+        if (rounds < 100) Thread.onSpinWait();
+        else if (rounds < 200) Thread.yield();
+        else LockSupport.parkNanos(50_000L);
+    }
+}
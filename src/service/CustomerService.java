@@ -1,29 +1,51 @@
 package service;
 
 import model.Customer;
+import model.Page;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 public class CustomerService {
-    private static CustomerService instance;
-    private final Map<String, Customer> customers = new HashMap<>();
+    private static final CustomerService instance = new CustomerService();
+    // sorted by email, so listings can be paged with the last email as the cursor
+    private final NavigableMap<String, Customer> customers = new ConcurrentSkipListMap<>();
+    private volatile ReservationJournal journal;
+    // registrations one at a time, so only the one that adds a customer logs it; a lock
+    // rather than a monitor, since the journal write may block a virtual thread on fsync
+    private final ReentrantLock registration = new ReentrantLock();
 
     private CustomerService() {}
 
     public static CustomerService getInstance() {
-        if (instance == null) instance = new CustomerService();
         return instance;
     }
 
+    // registrations are logged here once attached; null keeps everything in memory only
+    public void setJournal(ReservationJournal journal) {
+        this.journal = journal;
+    }
+
     // register new customer; false if already exists
     public boolean registerCustomer(String email, String firstName, String lastName) {
         String key = email.toLowerCase();
         if (customers.containsKey(key)) return false;
         Customer customer = new Customer(firstName, lastName, key);
-        customers.put(key, customer);
-        return true;
+        registration.lock();
+        try {
+            if (customers.containsKey(key)) return false;
+            // logged once the email is known to be free and before the customer becomes
+            // visible, so a losing duplicate is never logged and bookings always follow it
+            ReservationJournal journal = this.journal;
+            if (journal != null) journal.logCustomer(customer);
+            customers.put(key, customer);
+            return true;
+        } finally {
+            registration.unlock();
+        }
     }
 
     public Customer fetchCustomer(String email) {
@@ -34,4 +56,15 @@ public class CustomerService {
     public Collection<Customer> listAllCustomers() {
         return customers.values();
     }
+
+    // customers after the given email (null for the first page), in email order
+    public Page<Customer> listCustomersPage(String afterEmail, int pageSize) {
+        Collection<Customer> from = afterEmail == null ? customers.values()
+                : customers.tailMap(afterEmail.toLowerCase(), false).values();
+        return Page.of(from.iterator(), pageSize, Customer::getEmail);
+    }
+
+    public Stream<Customer> streamAllCustomers() {
+        return customers.values().stream();
+    }
 }
@@ -0,0 +1,77 @@
+package service;
+
+import model.Reservation;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Base of the reporting indexes. A booking only queues its change, lock-free; the index
+// applies the queue under its lock when a report asks, so no booking waits for a report or
+// for another booking. About every DRAIN_EVERY changes a booking thread also applies the
+// queue itself, but only if the lock is free, which keeps the queue short when nobody reports.
+abstract class DeferredIndex implements ReservationListener {
+
+    private static final int DRAIN_EVERY = 1024;
+
+    private static final class Change {
+        final Reservation reservation;
+        final int sign;
+
+        Change(Reservation reservation, int sign) {
+            this.reservation = reservation;
+            this.sign = sign;
+        }
+    }
+
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // adds or, for sign -1, takes back the stay; only called under the lock
+    abstract void apply(Reservation reservation, int sign);
+
+    @Override
+    public void stayBooked(Reservation reservation) {
+        queue(reservation, 1);
+    }
+
+    @Override
+    public void stayReleased(Reservation reservation) {
+        queue(reservation, -1);
+    }
+
+    void addAll(Reservation[] stays) {
+        lock();
+        try {
+            for (Reservation res : stays) apply(res, 1);
+        } finally {
+            unlock();
+        }
+    }
+
+    // takes the lock and applies every change queued so far, so what follows sees them all
+    final void lock() {
+        lock.lock();
+        drain();
+    }
+
+    final void unlock() {
+        lock.unlock();
+    }
+
+    private void queue(Reservation reservation, int sign) {
+        pending.add(new Change(reservation, sign));
+        if (ThreadLocalRandom.current().nextInt(DRAIN_EVERY) == 0 && lock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void drain() {
+        for (Change change; (change = pending.poll()) != null; ) apply(change.reservation, change.sign);
+    }
+}
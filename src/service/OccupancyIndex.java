@@ -0,0 +1,234 @@
+package service;
+
+import model.IRoom;
+import model.Reservation;
+import model.RoomType;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Rooms occupied per night, kept up to date from the booking events so occupancy reports
+// never rescan the reservations. One counter for all rooms and one per room type, each a
+// segment tree over nights with range add, range sum and range max, all O(log n). Archiving
+// a stay does not release it, so past nights keep their history. Bookings only queue their
+// changes; see DeferredIndex.
+final class OccupancyIndex extends DeferredIndex {
+
+    // nights counted: 2000-01-01 plus 2^15 days (into 2089); stays are clipped to it
+    static final int FIRST_DAY = (int) LocalDate.of(2000, 1, 1).toEpochDay();
+    static final int DAYS = 1 << 15;
+    // the nights a counter covers at first; it doubles as stays fall outside them
+    static final int FIRST_WINDOW = 1 << 9;
+
+    // Segment tree over the nights [base, base + size), allocated on the first stay. add[n]
+    // is what was added to the whole range of node n; sum[n] and max[n] already include it
+    // and every add below it, so nothing is pushed down and a query only collects the adds on
+    // its way from the root. size is a power of two and base a multiple of it, so doubling
+    // the window keeps the old tree as one half of the new one.
+    private static final class NightCounter {
+        private int base;
+        private int size;
+        private long[] sum;
+        private int[] max;
+        private int[] add;
+
+        void add(int from, int to, int delta) {
+            cover(from, to);
+            add(1, base, base + size, from, to, delta);
+        }
+
+        private void cover(int from, int to) {
+            if (sum == null) {
+                size = FIRST_WINDOW;
+                while (from / size != (to - 1) / size) size *= 2;
+                base = from / size * size;
+                sum = new long[2 * size];
+                max = new int[2 * size];
+                add = new int[2 * size];
+            }
+            while (from < base || to > base + size) grow();
+        }
+
+        // doubles the window, copying the old tree level by level into the half it becomes
+        private void grow() {
+            int newBase = base / (2 * size) * (2 * size);
+            int half = base == newBase ? 0 : 1;
+            long[] newSum = new long[4 * size];
+            int[] newMax = new int[4 * size];
+            int[] newAdd = new int[4 * size];
+            for (int first = 1; first < 2 * size; first *= 2) {
+                System.arraycopy(sum, first, newSum, 2 * first + half * first, first);
+                System.arraycopy(max, first, newMax, 2 * first + half * first, first);
+                System.arraycopy(add, first, newAdd, 2 * first + half * first, first);
+            }
+            newSum[1] = newSum[2] + newSum[3];
+            newMax[1] = Math.max(newMax[2], newMax[3]);
+            base = newBase;
+            size *= 2;
+            sum = newSum;
+            max = newMax;
+            add = newAdd;
+        }
+
+        private void add(int node, int lo, int hi, int from, int to, int delta) {
+            if (to <= lo || hi <= from) return;
+            if (from <= lo && hi <= to) {
+                add[node] += delta;
+                sum[node] += (long) delta * (hi - lo);
+                max[node] += delta;
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            add(2 * node, lo, mid, from, to, delta);
+            add(2 * node + 1, mid, hi, from, to, delta);
+            sum[node] = sum[2 * node] + sum[2 * node + 1] + (long) add[node] * (hi - lo);
+            max[node] = Math.max(max[2 * node], max[2 * node + 1]) + add[node];
+        }
+
+        // nights outside the window were never booked
+        long sum(int from, int to) {
+            from = Math.max(from, base);
+            to = Math.min(to, base + size);
+            return from >= to ? 0 : sum(1, base, base + size, from, to);
+        }
+
+        private long sum(int node, int lo, int hi, int from, int to) {
+            if (to <= lo || hi <= from) return 0;
+            if (from <= lo && hi <= to) return sum[node];
+            int mid = (lo + hi) >>> 1;
+            long overlap = Math.min(hi, to) - Math.max(lo, from);
+            return (long) add[node] * overlap
+                    + sum(2 * node, lo, mid, from, to) + sum(2 * node + 1, mid, hi, from, to);
+        }
+
+        // the first night with the most rooms in [from, to), packed as (rooms << 32 | night);
+        // no rooms and from if none of those nights was ever booked
+        long peak(int from, int to) {
+            int lo = Math.max(from, base);
+            int hi = Math.min(to, base + size);
+            long peak = lo >= hi ? 0 : peak(1, base, base + size, lo, hi);
+            return rooms(peak) == 0 ? pack(0, from) : peak;
+        }
+
+        private long peak(int node, int lo, int hi, int from, int to) {
+            if (from <= lo && hi <= to) return pack(max[node], firstMax(node, lo, hi));
+            int mid = (lo + hi) >>> 1;
+            long best;
+            if (to <= mid) best = peak(2 * node, lo, mid, from, to);
+            else if (from >= mid) best = peak(2 * node + 1, mid, hi, from, to);
+            else {
+                long left = peak(2 * node, lo, mid, from, to);
+                long right = peak(2 * node + 1, mid, hi, from, to);
+                best = rooms(left) >= rooms(right) ? left : right;
+            }
+            return pack(rooms(best) + add[node], night(best));
+        }
+
+        // leftmost night under node holding its max
+        private int firstMax(int node, int lo, int hi) {
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                if (max[2 * node] >= max[2 * node + 1]) {
+                    node = 2 * node;
+                    hi = mid;
+                } else {
+                    node = 2 * node + 1;
+                    lo = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private final NightCounter all = new NightCounter();
+    // created on the first stay of each type
+    private final Map<RoomType, NightCounter> byType = new EnumMap<>(RoomType.class);
+    private final Map<RoomType, Integer> roomsByType = new EnumMap<>(RoomType.class);
+    private int rooms;
+
+    @Override
+    public void roomRegistered(IRoom room) {
+        lock();
+        try {
+            rooms++;
+            roomsByType.merge(room.getRoomType(), 1, Integer::sum);
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    void apply(Reservation res, int delta) {
+        int from = clip(res.getCheckInDay());
+        int to = clip(res.getCheckOutDay());
+        if (from >= to) return;
+        all.add(from, to, delta);
+        byType.computeIfAbsent(res.getRoom().getRoomType(), k -> new NightCounter()).add(from, to, delta);
+    }
+
+    // rooms registered, of the type or all of them for null
+    int roomCount(RoomType type) {
+        lock();
+        try {
+            return type == null ? rooms : roomsByType.getOrDefault(type, 0);
+        } finally {
+            unlock();
+        }
+    }
+
+    // rooms occupied on the night of day
+    int occupiedOn(int day, RoomType type) {
+        return (int) roomNights(day, day + 1, type);
+    }
+
+    // occupied room-nights in [fromDay, toDay)
+    long roomNights(int fromDay, int toDay, RoomType type) {
+        lock();
+        try {
+            NightCounter counter = counter(type);
+            int from = clip(fromDay);
+            int to = clip(toDay);
+            return counter == null || from >= to ? 0 : counter.sum(from, to);
+        } finally {
+            unlock();
+        }
+    }
+
+    // the first night in [fromDay, toDay) with the most rooms occupied and that number, packed
+    // as (rooms << 32 | epoch day); see rooms and night
+    long peak(int fromDay, int toDay, RoomType type) {
+        int from = clip(fromDay);
+        int to = clip(toDay);
+        if (from >= to) return pack(0, fromDay);
+        long peak;
+        lock();
+        try {
+            NightCounter counter = counter(type);
+            peak = counter == null ? pack(0, from) : counter.peak(from, to);
+        } finally {
+            unlock();
+        }
+        return pack(rooms(peak), night(peak) + FIRST_DAY);
+    }
+
+    static int rooms(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    static int night(long packed) {
+        return (int) packed;
+    }
+
+    private static long pack(int rooms, int night) {
+        return ((long) rooms << 32) | (night & 0xffffffffL);
+    }
+
+    private NightCounter counter(RoomType type) {
+        return type == null ? all : byType.get(type);
+    }
+
+    private static int clip(int day) {
+        return Math.max(0, Math.min(DAYS, day - FIRST_DAY));
+    }
+}
@@ -0,0 +1,145 @@
+package service;
+
+import model.Customer;
+import model.IRoom;
+import model.Property;
+import model.Reservation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Many hotels, each in its own PropertyShard. Changes are queued to the owning shard's writer
+// thread, so bookings at different properties run fully in parallel; queries that span
+// properties fan out to every shard on a shared pool and merge the answers.
+public class PropertyService {
+
+    private static final PropertyService instance = new PropertyService();
+
+    // property id -> shard, in id order
+    private final Map<String, PropertyShard> shards = new ConcurrentSkipListMap<>();
+    // lower-cased city -> its properties' shards
+    private final Map<String, List<PropertyShard>> shardsByCity = new ConcurrentHashMap<>();
+    private final ExecutorService fanOut;
+
+    private PropertyService() {
+        AtomicInteger threads = new AtomicInteger();
+        fanOut = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "property-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static PropertyService getInstance() {
+        return instance;
+    }
+
+    // false if a property with this id already exists
+    public boolean addProperty(Property property) {
+        if (property == null) return false;
+        PropertyShard shard = new PropertyShard(property);
+        if (shards.putIfAbsent(property.getId(), shard) != null) {
+            shard.shutdown();
+            return false;
+        }
+        shardsByCity.computeIfAbsent(cityKey(property.getCity()), k -> new CopyOnWriteArrayList<>()).add(shard);
+        return true;
+    }
+
+    public Property getProperty(String propertyId) {
+        PropertyShard shard = propertyId == null ? null : shards.get(propertyId);
+        return shard == null ? null : shard.getProperty();
+    }
+
+    public Collection<Property> listProperties() {
+        List<Property> properties = new ArrayList<>(shards.size());
+        for (PropertyShard shard : shards.values()) properties.add(shard.getProperty());
+        return properties;
+    }
+
+    public CompletableFuture<Integer> addRooms(String propertyId, List<IRoom> rooms) {
+        return write(propertyId, service -> {
+            int added = 0;
+            for (IRoom room : rooms) {
+                if (service.registerRoom(room)) added++;
+            }
+            return added;
+        });
+    }
+
+    public IRoom fetchRoom(String propertyId, String roomNumber) {
+        PropertyShard shard = propertyId == null ? null : shards.get(propertyId);
+        return shard == null ? null : shard.reader().fetchRoomByNumber(roomNumber);
+    }
+
+    public CompletableFuture<Reservation> bookRoom(String propertyId, Customer customer, IRoom room,
+                                                   Date checkIn, Date checkOut) {
+        return write(propertyId, service -> service.bookRoomForCustomer(customer, room, checkIn, checkOut));
+    }
+
+    public CompletableFuture<Reservation> cancelReservation(String propertyId, Customer customer,
+                                                            IRoom room, Date checkIn) {
+        return write(propertyId, service -> service.cancelReservation(customer, room, checkIn));
+    }
+
+    // rooms free for the dates at every property in the city, by property
+    public Map<Property, Collection<IRoom>> searchCity(String city, Date checkIn, Date checkOut, Boolean onlyFree) {
+        List<PropertyShard> inCity = city == null ? null : shardsByCity.get(cityKey(city));
+        if (inCity == null) return new LinkedHashMap<>();
+        return fanOut(inCity, service -> service.searchRoomsForDisplay(checkIn, checkOut, onlyFree));
+    }
+
+    // the customer's stays at every property, by property; properties without any are left out
+    public Map<Property, Collection<Reservation>> fetchReservationsForCustomer(Customer customer) {
+        Map<Property, Collection<Reservation>> all = fanOut(new ArrayList<>(shards.values()),
+                service -> service.fetchReservationsForCustomer(customer));
+        all.values().removeIf(Collection::isEmpty);
+        return all;
+    }
+
+    public void shutdown() {
+        for (PropertyShard shard : shards.values()) shard.shutdown();
+        fanOut.shutdown();
+    }
+
+    private <T> CompletableFuture<T> write(String propertyId, Function<ReservationService, T> command) {
+        PropertyShard shard = propertyId == null ? null : shards.get(propertyId);
+        if (shard == null) {
+            System.out.println("Error: No such property: " + propertyId);
+            return CompletableFuture.completedFuture(null);
+        }
+        return shard.submit(command);
+    }
+
+    // runs the query on every shard in parallel and collects the answers in shard order
+    private <T> Map<Property, T> fanOut(List<PropertyShard> targets, Function<ReservationService, T> query) {
+        Map<Property, T> results = new LinkedHashMap<>();
+        if (targets.size() == 1) {
+            PropertyShard shard = targets.get(0);
+            results.put(shard.getProperty(), query.apply(shard.reader()));
+            return results;
+        }
+        List<CompletableFuture<T>> pending = new ArrayList<>(targets.size());
+        for (PropertyShard shard : targets) {
+            pending.add(CompletableFuture.supplyAsync(() -> query.apply(shard.reader()), fanOut));
+        }
+        for (int i = 0; i < targets.size(); i++) results.put(targets.get(i).getProperty(), pending.get(i).join());
+        return results;
+    }
+
+    private static String cityKey(String city) {
+        return city.trim().toLowerCase();
+    }
+}
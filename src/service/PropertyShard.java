@@ -0,0 +1,60 @@
+package service;
+
+import model.Property;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// One property's rooms and bookings. Every change runs as a command on the shard's single
+// writer thread, taken in order from its queue, so the shard's data is never contended and
+// its bookings need no locks. Reads go straight to the lock-free calendar snapshots.
+final class PropertyShard {
+
+    private static final long COMPACTION_MINUTES = 60;
+
+    private final Property property;
+    private final ReservationService service = new ReservationService();
+    private final ScheduledExecutorService writer;
+
+    PropertyShard(Property property) {
+        this.property = property;
+        // with one writer a compareAndSet never loses, so the optimistic path is the cheap one
+        service.setBookingMode(ReservationService.BookingMode.OPTIMISTIC);
+        writer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "property-" + property.getId() + "-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // archiving is a write too, so it queues behind the bookings instead of racing them
+        writer.scheduleWithFixedDelay(this::compactQuietly, COMPACTION_MINUTES, COMPACTION_MINUTES, TimeUnit.MINUTES);
+    }
+
+    Property getProperty() {
+        return property;
+    }
+
+    // for queries only; changes must go through submit
+    ReservationService reader() {
+        return service;
+    }
+
+    // queues a change for the writer thread; the future completes with its result
+    <T> CompletableFuture<T> submit(Function<ReservationService, T> command) {
+        return CompletableFuture.supplyAsync(() -> command.apply(service), writer);
+    }
+
+    void shutdown() {
+        writer.shutdown();
+    }
+
+    private void compactQuietly() {
+        try {
+            service.compact();
+        } catch (RuntimeException e) {
+            System.out.println("Error: Compaction of property " + property.getId() + " failed: " + e.getMessage());
+        }
+    }
+}
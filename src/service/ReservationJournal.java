@@ -0,0 +1,359 @@
+package service;
+
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Append-only log of customer registrations, room registrations, bookings, cancellations
+// and modifications. Each record is framed as [payload length][CRC32 of payload][payload], so a record
+// torn by a crash is detected on replay and cut off.
+public class ReservationJournal implements Closeable {
+
+    public enum DurabilityMode {
+        // fsync before every logged operation returns
+        SYNC,
+        // concurrent operations share one fsync; each still returns only once on disk
+        GROUP,
+        // return right after the write; a background task fsyncs periodically
+        ASYNC
+    }
+
+    private static final byte CUSTOMER = 1;
+    private static final byte ROOM = 2;
+    private static final byte BOOKING = 3;
+    private static final byte CANCEL = 4;
+    private static final byte MODIFY = 5;
+
+    private static final byte PLAIN_ROOM = 0;
+    private static final byte FREE_ROOM = 1;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 16;
+    private static final long ASYNC_FLUSH_MILLIS = 100;
+
+    private final FileChannel channel;
+    private final DurabilityMode mode;
+    // locks rather than monitors: a virtual thread waiting on an fsync inside a monitor
+    // would pin its carrier thread
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+    // record counts: appended to the file, and known to be on disk
+    private volatile long written;
+    private volatile long synced;
+
+    private ReservationJournal(FileChannel channel, DurabilityMode mode) {
+        this.channel = channel;
+        this.mode = mode;
+        if (mode == DurabilityMode.ASYNC) {
+            flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly,
+                    ASYNC_FLUSH_MILLIS, ASYNC_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    public static ReservationJournal open(Path file, DurabilityMode mode) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new ReservationJournal(channel, mode);
+    }
+
+    public DurabilityMode getMode() {
+        return mode;
+    }
+
+    // Re-applies every intact record through the services and leaves the journal positioned
+    // after the last one. Must run before the journal is attached, so nothing is logged twice.
+    // A cancellation or modification is logged before it frees any nights, and a booking after
+    // it holds its nights, so whatever takes nights always comes after what freed them.
+    // Journals written before that was so can still have a booking ahead of the record that
+    // frees its nights; such bookings wait until the nights are free.
+    public int replay(CustomerService customerService, ReservationService reservationService) throws IOException {
+        channel.position(0);
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        long intactBytes = 0;
+        int applied = 0;
+        List<Reservation> waiting = new ArrayList<>();
+
+        while (true) {
+            byte[] payload;
+            int checksum;
+            try {
+                int length = in.readInt();
+                checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) break;
+                payload = new byte[length];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                break;
+            }
+            if (crc(payload) != checksum) break;
+
+            apply(new DataInputStream(new ByteArrayInputStream(payload)), customerService, reservationService, waiting);
+            intactBytes += HEADER_BYTES + payload.length;
+            applied++;
+        }
+        // nothing freed them: book anyway, so the conflict is reported
+        for (Reservation res : waiting) {
+            reservationService.bookStay(res.getCustomer(), res.getRoom(), res.getCheckInDay(), res.getCheckOutDay());
+        }
+
+        channel.truncate(intactBytes);
+        channel.position(intactBytes);
+        return applied;
+    }
+
+    private void apply(DataInputStream record, CustomerService customerService,
+                       ReservationService reservationService, List<Reservation> waiting) throws IOException {
+        byte type = record.readByte();
+        switch (type) {
+            case CUSTOMER: {
+                String email = record.readUTF();
+                String firstName = record.readUTF();
+                String lastName = record.readUTF();
+                customerService.registerCustomer(email, firstName, lastName);
+                break;
+            }
+            case ROOM: {
+                byte kind = record.readByte();
+                String number = record.readUTF();
+                double price = record.readDouble();
+                RoomType roomType = RoomType.values()[record.readByte()];
+                reservationService.registerRoom(kind == FREE_ROOM
+                        ? new FreeRoom(number, roomType)
+                        : new Room(number, price, roomType));
+                break;
+            }
+            case BOOKING: {
+                Customer customer = customerService.fetchCustomer(record.readUTF());
+                IRoom room = reservationService.fetchRoomByNumber(record.readUTF());
+                int checkInDay = record.readInt();
+                int checkOutDay = record.readInt();
+                if (reservationService.isStayFree(room, checkInDay, checkOutDay)) {
+                    reservationService.bookStay(customer, room, checkInDay, checkOutDay);
+                } else {
+                    waiting.add(new Reservation(customer, room, checkInDay, checkOutDay));
+                }
+                break;
+            }
+            case CANCEL: {
+                Customer customer = customerService.fetchCustomer(record.readUTF());
+                IRoom room = reservationService.fetchRoomByNumber(record.readUTF());
+                reservationService.cancelStay(customer, room, record.readInt());
+                bookWaiting(waiting, reservationService);
+                break;
+            }
+            case MODIFY: {
+                Customer customer = customerService.fetchCustomer(record.readUTF());
+                IRoom room = reservationService.fetchRoomByNumber(record.readUTF());
+                int checkInDay = record.readInt();
+                IRoom newRoom = reservationService.fetchRoomByNumber(record.readUTF());
+                int newCheckInDay = record.readInt();
+                int newCheckOutDay = record.readInt();
+                reservationService.modifyStay(customer, room, checkInDay, newRoom, newCheckInDay, newCheckOutDay);
+                bookWaiting(waiting, reservationService);
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static void bookWaiting(List<Reservation> waiting, ReservationService reservationService) {
+        for (Iterator<Reservation> it = waiting.iterator(); it.hasNext(); ) {
+            Reservation res = it.next();
+            if (reservationService.isStayFree(res.getRoom(), res.getCheckInDay(), res.getCheckOutDay())) {
+                reservationService.bookStay(res.getCustomer(), res.getRoom(), res.getCheckInDay(), res.getCheckOutDay());
+                it.remove();
+            }
+        }
+    }
+
+    void logCustomer(Customer customer) {
+        append(encode(out -> {
+            out.writeByte(CUSTOMER);
+            out.writeUTF(customer.getEmail());
+            out.writeUTF(customer.getFirstName());
+            out.writeUTF(customer.getLastName());
+        }));
+    }
+
+    void logRoom(IRoom room) {
+        append(encode(out -> {
+            out.writeByte(ROOM);
+            out.writeByte(room instanceof FreeRoom ? FREE_ROOM : PLAIN_ROOM);
+            out.writeUTF(room.getRoomNumber());
+            out.writeDouble(room.getRoomPrice() == null ? 0.0 : room.getRoomPrice());
+            out.writeByte(room.getRoomType().ordinal());
+        }));
+    }
+
+    void logBooking(Reservation reservation) {
+        append(bookingRecord(reservation));
+    }
+
+    private static ByteBuffer bookingRecord(Reservation reservation) {
+        return encode(out -> {
+            out.writeByte(BOOKING);
+            out.writeUTF(reservation.getCustomer().getEmail());
+            out.writeUTF(reservation.getRoom().getRoomNumber());
+            out.writeInt(reservation.getCheckInDay());
+            out.writeInt(reservation.getCheckOutDay());
+        });
+    }
+
+    void logCancel(Reservation reservation) {
+        append(encode(out -> {
+            out.writeByte(CANCEL);
+            out.writeUTF(reservation.getCustomer().getEmail());
+            out.writeUTF(reservation.getRoom().getRoomNumber());
+            out.writeInt(reservation.getCheckInDay());
+        }));
+    }
+
+    // one record, so a crash can never keep the new stay and lose the release of the old one
+    void logModify(Reservation old, Reservation updated) {
+        append(encode(out -> {
+            out.writeByte(MODIFY);
+            out.writeUTF(old.getCustomer().getEmail());
+            out.writeUTF(old.getRoom().getRoomNumber());
+            out.writeInt(old.getCheckInDay());
+            out.writeUTF(updated.getRoom().getRoomNumber());
+            out.writeInt(updated.getCheckInDay());
+            out.writeInt(updated.getCheckOutDay());
+        }));
+    }
+
+    // several bookings written together and covered by a single fsync
+    void logBookings(List<Reservation> reservations) {
+        ByteBuffer[] records = new ByteBuffer[reservations.size()];
+        for (int i = 0; i < records.length; i++) records[i] = bookingRecord(reservations.get(i));
+        append(records);
+    }
+
+    // empties the journal once its contents are safely in a snapshot
+    public void truncate() throws IOException {
+        writeLock.lock();
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // fsyncs everything written so far
+    public void flush() throws IOException {
+        awaitSynced(written);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) flusher.shutdown();
+        flush();
+        channel.close();
+    }
+
+    private void append(ByteBuffer... records) {
+        try {
+            long sequence;
+            writeLock.lock();
+            try {
+                for (ByteBuffer record : records) {
+                    while (record.hasRemaining()) channel.write(record);
+                }
+                written += records.length;
+                sequence = written;
+                if (mode == DurabilityMode.SYNC) {
+                    channel.force(false);
+                    synced = sequence;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            if (mode == DurabilityMode.GROUP) awaitSynced(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the reservation journal", e);
+        }
+    }
+
+    // Group commit: the first thread in fsyncs every record written so far, so the
+    // threads queued behind it usually find their own record already covered.
+    private void awaitSynced(long sequence) throws IOException {
+        syncLock.lock();
+        try {
+            if (synced >= sequence) return;
+            long target = written;
+            channel.force(false);
+            synced = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.out.println("Error: Could not flush the reservation journal: " + e.getMessage());
+        }
+    }
+
+    private interface RecordBody {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    private static ByteBuffer encode(RecordBody body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            body.writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] payload = bytes.toByteArray();
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt(crc(payload)).put(payload);
+        return record.flip();
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
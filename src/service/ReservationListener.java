@@ -0,0 +1,16 @@
+package service;
+
+import model.IRoom;
+import model.Reservation;
+
+// Told about every change to room inventory or availability once it is committed. Runs on
+// the thread that made the change, so implementations must be quick and thread-safe.
+public interface ReservationListener {
+
+    default void roomRegistered(IRoom room) {}
+
+    default void stayBooked(Reservation reservation) {}
+
+    // a stay was cancelled, or moved away from by a modification; its nights are free again
+    default void stayReleased(Reservation reservation) {}
+}
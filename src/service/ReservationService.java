@@ -1,54 +1,218 @@
 package service;
 
+import metrics.HotelMetrics;
+import model.BookingRequest;
 import model.Customer;
+import model.EpochDays;
 import model.IRoom;
+import model.OccupancyReport;
+import model.Page;
 import model.Reservation;
+import model.RevenueReport;
+import model.RoomType;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class ReservationService {
 
-    private static ReservationService instance;
-
-    private final Map<String, IRoom> rooms = new HashMap<>();
-    private final List<Reservation> reservations = new ArrayList<>();
+    // how bookings on the same room are kept from racing each other
+    public enum BookingMode {
+        // serialise bookings per room through striped locks
+        STRIPED_LOCKS,
+        // no locks: build the new calendar and compareAndSet it, retrying on contention
+        OPTIMISTIC,
+        // bookRoomForCustomer queues bookings to one consumer thread through a ring buffer,
+        // which relies on the calendar compareAndSet alone; bookings and modifications made
+        // outside the ring take the striped locks as in STRIPED_LOCKS
+        PIPELINE
+    }
 
-    private ReservationService() {}
+    // bookings outside OPTIMISTIC mode take one of these, picked by room number
+    private static final int LOCK_STRIPES = 64;
+    // booking commands the pipeline can hold before callers wait
+    private static final int PIPELINE_CAPACITY = 1 << 12;
+
+    // stays by check-in, then room number. Customer and check-out break the remaining ties, so
+    // a stay cancelled and rebooked for the same night is a different key from the old one
+    // even while both are still in flight.
+    private static final Comparator<Reservation> BY_CHECK_IN =
+            Comparator.comparingInt(Reservation::getCheckInDay)
+                    .thenComparing((Reservation r) -> r.getRoom().getRoomNumber())
+                    .thenComparing(r -> r.getCustomer().getEmail())
+                    .thenComparingInt(Reservation::getCheckOutDay);
+
+    // created after BY_CHECK_IN, which its reservation sets need
+    private static final ReservationService instance = new ReservationService();
+
+    // every room and its calendar, as columns indexed by a dense room id; calendars are
+    // immutable snapshots of a room's stays and occupancy bitmap that readers just get()
+    private final RoomStore rooms = new RoomStore();
+    // hot stays in monthly partitions, ended ones in the archive
+    private final ReservationStore reservations = new ReservationStore(BY_CHECK_IN);
+    // customer email (already lower-cased by Customer) -> that customer's stays not yet archived
+    private final Map<String, NavigableSet<Reservation>> reservationsByCustomer = new ConcurrentHashMap<>();
+    private final ReentrantLock[] roomLocks = new ReentrantLock[LOCK_STRIPES];
+    // first night covered by the occupancy bitmaps of newly registered rooms; moved up by compaction
+    private volatile int originDay = EpochDays.today();
+    // nights before this have been archived and can no longer be booked
+    private volatile int archivedBefore = Integer.MIN_VALUE;
+    private ScheduledExecutorService compactor;
+    private volatile BookingMode bookingMode = BookingMode.STRIPED_LOCKS;
+    // running while PIPELINE mode is chosen, null otherwise
+    private volatile BookingPipeline pipeline;
+    private volatile ReservationJournal journal;
+    private final List<ReservationListener> listeners = new CopyOnWriteArrayList<>();
+    // rooms occupied per night, by type; fed by the booking events like any listener
+    private final OccupancyIndex occupancy = new OccupancyIndex();
+    // revenue in cents per night, by type and by customer, fed the same way
+    private final RevenueIndex revenue = new RevenueIndex();
+
+    // one per property shard; everything else uses getInstance()
+    ReservationService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) roomLocks[i] = new ReentrantLock();
+        listeners.add(occupancy);
+        listeners.add(revenue);
+    }
 
     public static ReservationService getInstance() {
-        if (instance == null) instance = new ReservationService();
         return instance;
     }
 
-    // avoid duplicate room numbers
+    public BookingMode getBookingMode() {
+        return bookingMode;
+    }
+
+    // Leaving PIPELINE mode returns once the pipeline has finished the bookings it took and
+    // its threads have ended; bookings submitted meanwhile are made directly instead.
+    public synchronized void setBookingMode(BookingMode bookingMode) {
+        Objects.requireNonNull(bookingMode);
+        if (bookingMode == BookingMode.PIPELINE && pipeline == null) {
+            pipeline = new BookingPipeline(this, PIPELINE_CAPACITY);
+        }
+        this.bookingMode = bookingMode;
+        if (bookingMode != BookingMode.PIPELINE && pipeline != null) {
+            pipeline.close();
+            pipeline = null;
+        }
+    }
+
+    // rooms and bookings are logged here once attached; null keeps everything in memory only
+    public void setJournal(ReservationJournal journal) {
+        this.journal = journal;
+    }
+
+    public void addListener(ReservationListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    // avoid duplicate room numbers; a room needs a number and a type, which the journal,
+    // the snapshot and the reports all rely on, and a price in whole cents, which is how
+    // the store keeps it
     public boolean registerRoom(IRoom room) {
-        if (room == null) return false;
-        if (rooms.containsKey(room.getRoomNumber())) return false;
-        rooms.put(room.getRoomNumber(), room);
+        if (room == null || room.getRoomNumber() == null || room.getRoomType() == null) return false;
+        Double price = room.getRoomPrice();
+        if (price != null && room.getRoomPriceCents() / 100.0 != price) {
+            System.out.println("Error: Room prices cannot have fractions of a cent.");
+            return false;
+        }
+        if (rooms.idOf(room.getRoomNumber()) >= 0) return false;
+        // logged once the number is known to be free and before the room becomes visible, so
+        // a losing duplicate is never logged and the room's bookings always follow it
+        ReservationJournal journal = this.journal;
+        if (rooms.add(room, new RoomCalendar(originDay), () -> {
+            if (journal != null) journal.logRoom(room);
+        }) < 0) return false;
+        for (ReservationListener listener : listeners) listener.roomRegistered(room);
         return true;
     }
 
+    // a new view of the room each call; null if there is none
     public IRoom fetchRoomByNumber(String roomNumber) {
-        return rooms.get(roomNumber);
+        int id = roomNumber == null ? -1 : rooms.idOf(roomNumber);
+        return id < 0 ? null : rooms.room(id);
     }
 
+    // every room in room number order, as of the call; views are made as they are read
     public Collection<IRoom> listAllRooms() {
-        return rooms.values();
+        int[] ids = rooms.byNumber();
+        return new AbstractList<IRoom>() {
+            @Override
+            public IRoom get(int index) {
+                return rooms.room(ids[index]);
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+
+    // rooms after the given number (null for the first page), in room number order
+    public Page<IRoom> listRoomsPage(String afterRoomNumber, int pageSize) {
+        return Page.of(idsAfter(afterRoomNumber).mapToObj(rooms::room).iterator(), pageSize, IRoom::getRoomNumber);
+    }
+
+    public Stream<IRoom> streamAllRooms() {
+        return listAllRooms().stream();
     }
 
-    private boolean matchesFreeFilter(IRoom room, Boolean onlyFree) {
-        if (onlyFree == null) return true;
-        boolean isFree = (room.getRoomPrice() != null && room.getRoomPrice() == 0.0) || room.isFree();
-        return onlyFree.equals(isFree);
+    // ids of the rooms numbered after roomNumber (all for null), in room number order
+    private IntStream idsAfter(String roomNumber) {
+        int[] ids = rooms.byNumber();
+        int from = roomNumber == null ? 0 : rooms.firstAfter(ids, roomNumber);
+        return Arrays.stream(ids, from, ids.length);
+    }
+
+    // the room's calendar, or null if it is not registered here
+    private AtomicReference<RoomCalendar> calendarOf(String roomNumber) {
+        int id = rooms.idOf(roomNumber);
+        return id < 0 ? null : rooms.calendar(id);
     }
 
 
 
+    private int stripeOf(String roomNumber) {
+        return (roomNumber.hashCode() & 0x7fffffff) % LOCK_STRIPES;
+    }
 
-//     true if two date ranges overlap
-    private boolean overlaps(Date checkIn, Date checkOut, Reservation r) {
-        return !(checkOut.compareTo(r.getCheckInDate()) <= 0 ||
-                checkIn.compareTo(r.getCheckOutDate()) >= 0);
+    private ReentrantLock lockFor(String roomNumber) {
+        return roomLocks[stripeOf(roomNumber)];
+    }
+
+    // Takes the lock stripes of all the rooms in index order, so two callers locking
+    // overlapping sets of rooms cannot deadlock. Returns the stripes for unlockRooms.
+    private int[] lockRooms(Collection<String> roomNumbers) {
+        int[] stripes = roomNumbers.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        for (int stripe : stripes) roomLocks[stripe].lock();
+        return stripes;
+    }
+
+    private void unlockRooms(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; i--) roomLocks[stripes[i]].unlock();
+    }
+
+    // books [checkInDay, checkOutDay) on the room's calendar; false if any night is taken.
+    // A failed compareAndSet means another booking got in first, so re-check against it.
+    private boolean commitStay(AtomicReference<RoomCalendar> calendar, int checkInDay, int checkOutDay) {
+        while (true) {
+            RoomCalendar current = calendar.get();
+            if (!current.isFree(checkInDay, checkOutDay)) return false;
+            if (calendar.compareAndSet(current, current.with(checkInDay, checkOutDay))) return true;
+        }
     }
 
     // booking with conflict detection
@@ -60,39 +224,451 @@ public class ReservationService {
             return null;
         }
 
-        // checking real availability here
-        for (Reservation r : reservations) {
-            if (r.getRoom().getRoomNumber().equals(room.getRoomNumber())) {
-                if (overlaps(checkIn, checkOut, r)) {
-                    System.out.println("Error: Room " + room.getRoomNumber() + " is already booked for these dates.");
-                    return null;
+        BookingPipeline pipeline = this.pipeline;
+        CompletableFuture<Reservation> queued = bookingMode != BookingMode.PIPELINE || pipeline == null ? null
+                : pipeline.submit(customer, room, EpochDays.of(checkIn), EpochDays.of(checkOut));
+        if (queued == null) {
+            return bookStay(customer, room, EpochDays.of(checkIn), EpochDays.of(checkOut));
+        }
+        try {
+            return queued.join();
+        } catch (CompletionException e) {
+            // surface a journal failure the same way a direct booking would
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    // Like bookRoomForCustomer, but in PIPELINE mode returns as soon as the booking is queued;
+    // the future completes with the reservation, or null on a conflict, once it is journaled.
+    public CompletableFuture<Reservation> bookRoomForCustomerAsync(Customer customer, IRoom room,
+                                                                   Date checkIn, Date checkOut) {
+        BookingPipeline pipeline = this.pipeline;
+        CompletableFuture<Reservation> queued = bookingMode != BookingMode.PIPELINE || pipeline == null
+                || customer == null || room == null || checkIn == null || checkOut == null
+                || !checkIn.before(checkOut) ? null
+                : pipeline.submit(customer, room, EpochDays.of(checkIn), EpochDays.of(checkOut));
+        return queued != null ? queued
+                : CompletableFuture.completedFuture(bookRoomForCustomer(customer, room, checkIn, checkOut));
+    }
+
+    // books the nights [checkInDay, checkOutDay); also used when replaying the journal
+    Reservation bookStay(Customer customer, IRoom room, int checkInDay, int checkOutDay) {
+        Reservation res;
+        if (bookingMode == BookingMode.OPTIMISTIC || room == null) {
+            res = holdStay(customer, room, checkInDay, checkOutDay);
+        } else {
+            ReentrantLock lock = lockFor(room.getRoomNumber());
+            lock.lock();
+            try {
+                res = holdStay(customer, room, checkInDay, checkOutDay);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (res == null) return null;
+
+        // logged before it can be found, so a cancellation never reaches the journal ahead of it
+        ReservationJournal journal = this.journal;
+        if (journal != null) {
+            try {
+                journal.logBooking(res);
+            } catch (RuntimeException e) {
+                // not on record, so its nights must not stay taken
+                releaseHeld(res);
+                throw e;
+            }
+        }
+        publishStay(res);
+        return res;
+    }
+
+    // Takes the nights on the room's calendar and returns the stay, not yet journaled or
+    // visible anywhere else; null if the input is invalid or a night is taken. The check and
+    // the insert are one compareAndSet, so two bookings can never both pass the check.
+    Reservation holdStay(Customer customer, IRoom room, int checkInDay, int checkOutDay) {
+        AtomicReference<RoomCalendar> calendar = room == null ? null : calendarOf(room.getRoomNumber());
+        if (customer == null || calendar == null || checkInDay >= checkOutDay) {
+            System.out.println("Error: Invalid input.");
+            return null;
+        }
+        if (isArchived(checkInDay)) return null;
+
+        if (!commitStay(calendar, checkInDay, checkOutDay)) {
+            HotelMetrics.getInstance().recordBookingConflict();
+            System.out.println("Error: Room " + room.getRoomNumber() + " is already booked for these dates.");
+            return null;
+        }
+        return new Reservation(customer, room, checkInDay, checkOutDay);
+    }
+
+    // gives back the nights of a stay from holdStay that will never be published
+    void releaseHeld(Reservation res) {
+        releaseStay(calendarOf(res.getRoom().getRoomNumber()), res.getCheckInDay());
+    }
+
+    // makes a held stay visible to the customer's history and the listeners
+    void publishStay(Reservation res) {
+        reservations.add(res);
+        reservationsByCustomer
+                .computeIfAbsent(res.getCustomer().getEmail(), k -> new ConcurrentSkipListSet<>(BY_CHECK_IN))
+                .add(res);
+
+        for (ReservationListener listener : listeners) listener.stayBooked(res);
+    }
+
+    ReservationJournal getJournal() {
+        return journal;
+    }
+
+    // Books every requested stay for the customer, or none of them (null). Stays are grouped
+    // by room so each room's calendar is checked and committed once, and the rooms' lock
+    // stripes are taken in index order so concurrent group bookings cannot deadlock.
+    public List<Reservation> bookRoomsForCustomer(Customer customer, List<BookingRequest> requests) {
+        if (customer == null || requests == null || requests.isEmpty()) {
+            System.out.println("Error: Invalid input.");
+            return null;
+        }
+
+        List<Reservation> group = new ArrayList<>(requests.size());
+        Map<String, List<Reservation>> byRoom = new LinkedHashMap<>();
+        for (BookingRequest request : requests) {
+            IRoom room = request == null ? null : request.getRoom();
+            if (room == null || calendarOf(room.getRoomNumber()) == null
+                    || request.getCheckInDate() == null || request.getCheckOutDate() == null) {
+                System.out.println("Error: Invalid input.");
+                return null;
+            }
+            Reservation res = new Reservation(customer, room, request.getCheckInDate(), request.getCheckOutDate());
+            if (res.getCheckInDay() >= res.getCheckOutDay()) {
+                System.out.println("Error: Invalid input.");
+                return null;
+            }
+            if (isArchived(res.getCheckInDay())) return null;
+            group.add(res);
+            byRoom.computeIfAbsent(room.getRoomNumber(), k -> new ArrayList<>()).add(res);
+        }
+
+        int[] stripes = lockRooms(byRoom.keySet());
+        String conflict = null;
+        try {
+            List<String> committed = new ArrayList<>();
+            for (Map.Entry<String, List<Reservation>> entry : byRoom.entrySet()) {
+                if (!commitStays(calendarOf(entry.getKey()), entry.getValue())) {
+                    conflict = entry.getKey();
+                    break;
+                }
+                committed.add(entry.getKey());
+            }
+            // all or nothing: hand back the rooms already taken
+            if (conflict != null) {
+                for (String roomNumber : committed) releaseStays(calendarOf(roomNumber), byRoom.get(roomNumber));
+            }
+        } finally {
+            unlockRooms(stripes);
+        }
+        if (conflict != null) {
+            HotelMetrics.getInstance().recordBookingConflict();
+            System.out.println("Error: Room " + conflict + " is already booked for these dates.");
+            return null;
+        }
+
+        ReservationJournal journal = this.journal;
+        if (journal != null) {
+            try {
+                journal.logBookings(group);
+            } catch (RuntimeException e) {
+                for (Map.Entry<String, List<Reservation>> entry : byRoom.entrySet()) {
+                    releaseStays(calendarOf(entry.getKey()), entry.getValue());
                 }
+                throw e;
             }
         }
 
-        Reservation res = new Reservation(customer, room, checkIn, checkOut);
+        reservations.addAll(group);
+        reservationsByCustomer
+                .computeIfAbsent(customer.getEmail(), k -> new ConcurrentSkipListSet<>(BY_CHECK_IN))
+                .addAll(group);
+
+        for (Reservation res : group) {
+            for (ReservationListener listener : listeners) listener.stayBooked(res);
+        }
+        return group;
+    }
+
+    // commitStay for several stays of one room in a single compareAndSet; they must also
+    // not overlap each other
+    private boolean commitStays(AtomicReference<RoomCalendar> calendar, List<Reservation> stays) {
+        while (true) {
+            RoomCalendar current = calendar.get();
+            RoomCalendar next = current;
+            for (Reservation stay : stays) {
+                if (!next.isFree(stay.getCheckInDay(), stay.getCheckOutDay())) return false;
+                next = next.with(stay.getCheckInDay(), stay.getCheckOutDay());
+            }
+            if (calendar.compareAndSet(current, next)) return true;
+        }
+    }
+
+    // undoes commitStays; retries if a lock-free booking changed the room in between
+    private void releaseStays(AtomicReference<RoomCalendar> calendar, List<Reservation> stays) {
+        while (true) {
+            RoomCalendar current = calendar.get();
+            RoomCalendar next = current;
+            for (Reservation stay : stays) next = next.without(stay.getCheckInDay());
+            if (calendar.compareAndSet(current, next)) return;
+        }
+    }
+
+
+    // takes the stay checking in on checkInDay off the room's calendar; the free gaps either
+    // side of it simply become one
+    private void releaseStay(AtomicReference<RoomCalendar> calendar, int checkInDay) {
+        while (true) {
+            RoomCalendar current = calendar.get();
+            RoomCalendar next = current.without(checkInDay);
+            if (next == null || calendar.compareAndSet(current, next)) return;
+        }
+    }
+
+    // Moves a stay within one room in a single compareAndSet, so its old nights are never free
+    // before the new ones are held. The new stay may overlap the old one.
+    private boolean shiftStay(AtomicReference<RoomCalendar> calendar, int oldCheckInDay,
+                              int checkInDay, int checkOutDay) {
+        while (true) {
+            RoomCalendar current = calendar.get();
+            RoomCalendar next = current.without(oldCheckInDay);
+            if (next == null || !next.isFree(checkInDay, checkOutDay)) return false;
+            if (calendar.compareAndSet(current, next.with(checkInDay, checkOutDay))) return true;
+        }
+    }
+
+    // the calendars no longer hold stays before archivedBefore, so those nights cannot be booked
+    private boolean isArchived(int checkInDay) {
+        if (checkInDay >= archivedBefore) return false;
+        System.out.println("Error: Stays before " + EpochDays.toDate(archivedBefore) + " are archived and cannot be booked.");
+        return true;
+    }
+
+    // the customer's stay in the room that checks in on checkInDay, or null
+    private static Reservation findStay(NavigableSet<Reservation> own, Customer customer, IRoom room, int checkInDay) {
+        if (own == null) return null;
+        // sorts before any stay of the customer's with that check-in and room
+        Reservation probe = new Reservation(customer, room, checkInDay, Integer.MIN_VALUE);
+        Reservation found = own.ceiling(probe);
+        return found != null && found.getCheckInDay() == checkInDay
+                && found.getRoom().getRoomNumber().equals(room.getRoomNumber()) ? found : null;
+    }
+
+    // cancels the customer's stay in the room checking in on checkIn; null if there is none
+    public Reservation cancelReservation(Customer customer, IRoom room, Date checkIn) {
+        if (customer == null || room == null || checkIn == null) {
+            System.out.println("Error: Invalid input.");
+            return null;
+        }
+        return cancelStay(customer, room, EpochDays.of(checkIn));
+    }
+
+    // also used when replaying the journal
+    Reservation cancelStay(Customer customer, IRoom room, int checkInDay) {
+        NavigableSet<Reservation> own = customer == null ? null : reservationsByCustomer.get(customer.getEmail());
+        Reservation res = room == null ? null : findStay(own, customer, room, checkInDay);
+        // removing it from the customer's set claims it, so a stay is only ever cancelled once
+        if (res == null || !own.remove(res)) {
+            System.out.println("Error: No such reservation.");
+            return null;
+        }
+
+        // on record before its nights are free, so whatever books them next is logged after it;
+        // nothing has changed yet if that fails
+        ReservationJournal journal = this.journal;
+        if (journal != null) {
+            try {
+                journal.logCancel(res);
+            } catch (RuntimeException e) {
+                own.add(res);
+                throw e;
+            }
+        }
+        // out of the store before its nights are free again, so a booking of the same nights
+        // is never added next to it
+        reservations.remove(res);
+        releaseStay(calendarOf(room.getRoomNumber()), checkInDay);
+
+        for (ReservationListener listener : listeners) listener.stayReleased(res);
+        return res;
+    }
+
+    // Moves the customer's stay in room checking in on checkIn to new dates and/or another
+    // room. The new stay is secured before the old one is let go, so on a conflict the
+    // original reservation is kept as it was and null is returned. The old nights are only
+    // given up once the change is on record; if the journal fails, the stay is put back.
+    public Reservation modifyReservation(Customer customer, IRoom room, Date checkIn,
+                                         IRoom newRoom, Date newCheckIn, Date newCheckOut) {
+        if (customer == null || room == null || checkIn == null || newRoom == null
+                || newCheckIn == null || newCheckOut == null || !newCheckIn.before(newCheckOut)) {
+            System.out.println("Error: Invalid input.");
+            return null;
+        }
+        return modifyStay(customer, room, EpochDays.of(checkIn),
+                newRoom, EpochDays.of(newCheckIn), EpochDays.of(newCheckOut));
+    }
+
+    // also used when replaying the journal
+    Reservation modifyStay(Customer customer, IRoom room, int checkInDay,
+                           IRoom newRoom, int newCheckInDay, int newCheckOutDay) {
+        AtomicReference<RoomCalendar> to = newRoom == null ? null : calendarOf(newRoom.getRoomNumber());
+        if (customer == null || room == null || to == null || newCheckInDay >= newCheckOutDay) {
+            System.out.println("Error: Invalid input.");
+            return null;
+        }
+        if (isArchived(newCheckInDay)) return null;
+        NavigableSet<Reservation> own = reservationsByCustomer.get(customer.getEmail());
+        Reservation old = findStay(own, customer, room, checkInDay);
+        // claimed like a cancellation; handed back below if the new stay cannot be had
+        if (old == null || !own.remove(old)) {
+            System.out.println("Error: No such reservation.");
+            return null;
+        }
+
+        // Both stays are held until the change is on record. In the same room, a new stay that
+        // overlaps or touches the old one is held as one stay spanning both.
+        AtomicReference<RoomCalendar> from = calendarOf(room.getRoomNumber());
+        int checkOutDay = old.getCheckOutDay();
+        boolean spanned = from == to && newCheckInDay <= checkOutDay && checkInDay <= newCheckOutDay;
+        int spanIn = Math.min(checkInDay, newCheckInDay);
+        int spanOut = Math.max(checkOutDay, newCheckOutDay);
+        boolean held;
+        int[] stripes = bookingMode != BookingMode.OPTIMISTIC
+                ? lockRooms(Arrays.asList(room.getRoomNumber(), newRoom.getRoomNumber())) : new int[0];
+        try {
+            held = spanned
+                    ? shiftStay(from, checkInDay, spanIn, spanOut)
+                    : commitStay(to, newCheckInDay, newCheckOutDay);
+        } finally {
+            unlockRooms(stripes);
+        }
+        if (!held) {
+            own.add(old);
+            HotelMetrics.getInstance().recordBookingConflict();
+            System.out.println("Error: Room " + newRoom.getRoomNumber() + " is already booked for these dates.");
+            return null;
+        }
+
+        Reservation res = new Reservation(customer, newRoom, newCheckInDay, newCheckOutDay);
+        ReservationJournal journal = this.journal;
+        if (journal != null) {
+            try {
+                journal.logModify(old, res);
+            } catch (RuntimeException e) {
+                // not on record: back to the old stay, whose nights were never given up
+                if (spanned) shiftStay(from, spanIn, checkInDay, checkOutDay);
+                else releaseStay(to, newCheckInDay);
+                own.add(old);
+                throw e;
+            }
+        }
+
+        // out of the store before its nights can be released, as in cancelStay
+        reservations.remove(old);
+        if (spanned) shiftStay(from, spanIn, newCheckInDay, newCheckOutDay);
+        else releaseStay(from, checkInDay);
         reservations.add(res);
+        own.add(res);
+        for (ReservationListener listener : listeners) {
+            listener.stayReleased(old);
+            listener.stayBooked(res);
+        }
         return res;
     }
 
+    // true if the room exists and [checkInDay, checkOutDay) is free; lets journal replay
+    // hold back a booking whose nights a later record frees
+    boolean isStayFree(IRoom room, int checkInDay, int checkOutDay) {
+        AtomicReference<RoomCalendar> calendar = room == null ? null : calendarOf(room.getRoomNumber());
+        return calendar != null && calendar.get().isFree(checkInDay, checkOutDay);
+    }
 
-    // shows ALL rooms, booking conflict is handled later
+    // rooms with no reservation overlapping [checkIn, checkOut), answered from the occupancy bitmaps
     public Collection<IRoom> searchRoomsForDisplay(Date checkIn, Date checkOut, Boolean onlyFree) {
+        return searchRoomsForDisplay(checkIn, checkOut, onlyFree, null, null, null);
+    }
+
+    // as above, limited to one room type and/or an inclusive price range; null means any
+    public Collection<IRoom> searchRoomsForDisplay(Date checkIn, Date checkOut, Boolean onlyFree,
+                                                   RoomType type, Double minPrice, Double maxPrice) {
         List<IRoom> result = new ArrayList<>();
-        for (IRoom room : rooms.values()) {
-            if (matchesFreeFilter(room, onlyFree)) {
-                result.add(room);
-            }
+        int checkInDay = EpochDays.of(checkIn);
+        int checkOutDay = EpochDays.of(checkOut);
+        if (checkInDay >= checkOutDay) return result;
+
+        for (int id : rooms.select(onlyFree, type, minPrice, maxPrice)) {
+            if (rooms.calendar(id).get().isFree(checkInDay, checkOutDay)) result.add(rooms.room(id));
         }
         return result;
     }
 
+    // One page of searchRoomsForDisplay in room number order. Rooms are checked only until the
+    // page is full, so the work and memory follow the page size, not the inventory.
+    public Page<IRoom> searchRoomsPage(Date checkIn, Date checkOut, Boolean onlyFree, RoomType type,
+                                       Double minPrice, Double maxPrice, String afterRoomNumber, int pageSize) {
+        int checkInDay = EpochDays.of(checkIn);
+        int checkOutDay = EpochDays.of(checkOut);
+        if (checkInDay >= checkOutDay) return new Page<>(new ArrayList<>(), null);
+        Iterator<IRoom> available = idsAfter(afterRoomNumber)
+                .filter(id -> rooms.matches(id, onlyFree, type, minPrice, maxPrice)
+                        && rooms.calendar(id).get().isFree(checkInDay, checkOutDay))
+                .mapToObj(rooms::room)
+                .iterator();
+        return Page.of(available, pageSize, IRoom::getRoomNumber);
+    }
+
+    // the same rooms as searchRoomsForDisplay; the filters are one pass over the room columns,
+    // the calendars are checked lazily as the stream is consumed
+    public Stream<IRoom> streamAvailableRooms(Date checkIn, Date checkOut, Boolean onlyFree, RoomType type,
+                                              Double minPrice, Double maxPrice) {
+        int checkInDay = EpochDays.of(checkIn);
+        int checkOutDay = EpochDays.of(checkOut);
+        if (checkInDay >= checkOutDay) return Stream.empty();
+        return IntStream.of(rooms.select(onlyFree, type, minPrice, maxPrice))
+                .filter(id -> rooms.calendar(id).get().isFree(checkInDay, checkOutDay))
+                .mapToObj(rooms::room);
+    }
+
+    // The k cheapest rooms free for the dates, cheapest first. The rooms are walked in price
+    // order, so this stops as soon as k rooms are found.
+    public List<IRoom> findCheapestAvailableRooms(Date checkIn, Date checkOut, Boolean onlyFree,
+                                                  RoomType type, int k) {
+        int limit = Math.max(0, Math.min(k, Page.MAX_PAGE_SIZE));
+        List<IRoom> cheapest = new ArrayList<>(limit);
+        int checkInDay = EpochDays.of(checkIn);
+        int checkOutDay = EpochDays.of(checkOut);
+        if (checkInDay >= checkOutDay) return cheapest;
+
+        int[] byPrice = rooms.byPrice();
+        for (int i = 0; i < byPrice.length && cheapest.size() < limit; i++) {
+            int id = byPrice[i];
+            if (rooms.matches(id, onlyFree, type, null, null)
+                    && rooms.calendar(id).get().isFree(checkInDay, checkOutDay)) {
+                cheapest.add(rooms.room(id));
+            }
+        }
+        return cheapest;
+    }
+
 
     public Map<IRoom, Date[]> findRecommendedRoomsWithDates(Date checkIn, Date checkOut,
                                                             int searchWindowDays, Boolean onlyFree) {
+        return findRecommendedRoomsWithDates(checkIn, checkOut, searchWindowDays, onlyFree, null, null, null);
+    }
+
+    public Map<IRoom, Date[]> findRecommendedRoomsWithDates(Date checkIn, Date checkOut, int searchWindowDays,
+                                                            Boolean onlyFree, RoomType type,
+                                                            Double minPrice, Double maxPrice) {
 
         Map<IRoom, Date[]> recommendations = new LinkedHashMap<>();
-        long duration = checkOut.getTime() - checkIn.getTime();
+        int checkInDay = EpochDays.of(checkIn);
+        int duration = EpochDays.of(checkOut) - checkInDay;
         if (duration <= 0) return recommendations;
 
         //  Limit searchWindowDays (user input) to maximum 365
@@ -103,86 +679,195 @@ public class ReservationService {
             searchWindowDays = 1; // Minimum positive window
         }
 
-        // Compute today and latest bookable date (+365 days)
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        Date today = cal.getTime();
-
-        cal.add(Calendar.DAY_OF_YEAR, 365);
-        Date latestBookableDate = cal.getTime();
+        // Latest bookable check-in is today + 365 days
+        int latestBookableDay = EpochDays.today() + 365;
 
         //  Sliding window: user window + next 6 days (7-day window)
-        int startOffset = searchWindowDays;
-        int endOffset = searchWindowDays + 6;
+        int firstStart = checkInDay + searchWindowDays;
+        int lastStart = Math.min(checkInDay + searchWindowDays + 6, latestBookableDay);
+        if (firstStart > lastStart) return recommendations;
+
+        int probes = 0;
+        for (int id : rooms.select(onlyFree, type, minPrice, maxPrice)) {
+            // one consistent snapshot per room
+            RoomCalendar calendar = rooms.calendar(id).get();
+
+            // Only rooms booked for the original dates need alternatives
+            if (calendar.isFree(checkInDay, checkInDay + duration)) continue;
+
+            // Earliest free slot in the window, straight from the room's stays
+            int start = calendar.earliestFreeStart(firstStart, lastStart, duration);
+            probes++;
+            if (start != RoomCalendar.NO_SLOT) {
+                recommendations.put(rooms.room(id), new Date[]{EpochDays.toDate(start), EpochDays.toDate(start + duration)});
+            }
+        }
+        HotelMetrics.getInstance().recordRecommendationProbes(probes);
 
-        //  Iterate through all rooms
-        for (IRoom room : rooms.values()) {
+        return recommendations;
+    }
 
-            if (!matchesFreeFilter(room, onlyFree)) continue;
+    // the customer's own reservations, archived ones included, ordered by check-in date
+    public Collection<Reservation> fetchReservationsForCustomer(Customer customer) {
+        if (customer == null) return new ArrayList<>();
+
+        // archived stays almost always come first, so the sort is nearly free
+        List<Reservation> history = new ArrayList<>(reservations.archivedFor(customer.getEmail()));
+        NavigableSet<Reservation> own = reservationsByCustomer.get(customer.getEmail());
+        if (own != null) history.addAll(own);
+        history.sort(BY_CHECK_IN);
+        return history;
+    }
 
-            boolean immediateBooked = false;
+    // archived and current stays
+    Collection<Reservation> allReservations() {
+        return Stream.concat(reservations.archived(), reservations.hot()).collect(Collectors.toList());
+    }
 
-            // Check if room is booked for the original dates
-            for (Reservation r : reservations) {
-                if (r.getRoom().getRoomNumber().equals(room.getRoomNumber())
-                        && overlaps(checkIn, checkOut, r)) {
-                    immediateBooked = true;
-                    break;
-                }
+    // Runs compact() now and then every interval on a background thread, until stopCompaction.
+    public synchronized void startCompaction(long interval, TimeUnit unit) {
+        if (compactor != null) return;
+        compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "reservation-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                System.out.println("Error: Reservation compaction failed: " + e.getMessage());
             }
+        }, 0, interval, unit);
+    }
 
-            if (!immediateBooked) continue;
+    // stops the background compaction and waits for a run in progress
+    public synchronized void stopCompaction() {
+        if (compactor == null) return;
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactor = null;
+    }
+
+    // Moves the stays that ended by today into the archive and drops them from the room
+    // calendars, whose bitmaps are rebuilt to start today. Nothing is locked: calendars are
+    // swapped with compareAndSet like any booking, and each stay is claimed from its
+    // customer's index first, so a stay being cancelled or changed is left for the next run.
+    // Returns the number of stays archived.
+    public int compact() {
+        int today = EpochDays.today();
+        if (today <= archivedBefore) return 0;
+        // closed first, so no new booking can land in nights the calendars are about to drop
+        archivedBefore = today;
+        originDay = today;
+
+        List<Reservation> moved = reservations.archiveEndedBy(today, res -> {
+            NavigableSet<Reservation> own = reservationsByCustomer.get(res.getCustomer().getEmail());
+            return own != null && own.remove(res);
+        });
+        for (int id = 0, n = rooms.size(); id < n; id++) {
+            AtomicReference<RoomCalendar> calendar = rooms.calendar(id);
+            while (true) {
+                RoomCalendar current = calendar.get();
+                RoomCalendar next = current.compactedTo(today);
+                if (next == current || calendar.compareAndSet(current, next)) break;
+            }
+        }
+        return moved.size();
+    }
 
-            // Try alternative dates within the sliding window
-            for (int offset = startOffset; offset <= endOffset; offset++) {
+    public long getActiveReservationCount() {
+        return reservations.hotSize();
+    }
 
-                Date altIn = new Date(checkIn.getTime() + offset * 24L * 60 * 60 * 1000);
-                Date altOut = new Date(altIn.getTime() + duration);
+    public long getArchivedReservationCount() {
+        return reservations.archivedSize();
+    }
 
-                // Stop if alternative exceeds +365-day limit
-                if (altIn.after(latestBookableDate)) {
-                    break;
-                }
+    public int getReservationPartitionCount() {
+        return reservations.partitionCount();
+    }
 
-                boolean conflict = false;
-                for (Reservation r : reservations) {
-                    if (r.getRoom().getRoomNumber().equals(room.getRoomNumber())
-                            && overlaps(altIn, altOut, r)) {
-                        conflict = true;
-                        break;
-                    }
-                }
+    // rooms of the type (null for all) occupied on the night starting on night
+    public int getOccupiedRooms(Date night, RoomType type) {
+        if (night == null) return 0;
+        return occupancy.occupiedOn(EpochDays.of(night), type);
+    }
 
-                if (!conflict) {
-                    recommendations.put(room, new Date[]{altIn, altOut});
-                    break;
-                }
-            }
+    // occupancy of the nights [from, to) for the type, or all rooms for null, from the
+    // per-night counters; null if the range is invalid
+    public OccupancyReport getOccupancyReport(Date from, Date to, RoomType type) {
+        if (from == null || to == null || !from.before(to)) {
+            System.out.println("Error: Invalid input.");
+            return null;
         }
+        int fromDay = EpochDays.of(from);
+        int toDay = EpochDays.of(to);
+        long peak = occupancy.peak(fromDay, toDay, type);
+        return new OccupancyReport(fromDay, toDay, type, occupancy.roomCount(type),
+                occupancy.roomNights(fromDay, toDay, type),
+                OccupancyIndex.night(peak), OccupancyIndex.rooms(peak));
+    }
 
-        return recommendations;
+    // revenue of the nights [from, to) for the type, or all rooms for null, from the running
+    // totals kept at booking time; null if the range is invalid
+    public RevenueReport getRevenueReport(Date from, Date to, RoomType type) {
+        if (from == null || to == null || !from.before(to)) {
+            System.out.println("Error: Invalid input.");
+            return null;
+        }
+        int fromDay = EpochDays.of(from);
+        int toDay = EpochDays.of(to);
+        return new RevenueReport(fromDay, toDay, type, occupancy.roomCount(type),
+                occupancy.roomNights(fromDay, toDay, type), revenue.revenue(fromDay, toDay, type));
     }
 
-    public Collection<Reservation> fetchReservationsForCustomer(Customer customer) {
-        List<Reservation> list = new ArrayList<>();
-        if (customer == null) return list;
+    // everything the customer's current and past stays are worth, in cents
+    public long getCustomerRevenueCents(Customer customer) {
+        return customer == null ? 0 : revenue.revenueFrom(customer.getEmail());
+    }
 
-        for (Reservation r : reservations) {
-            if (r.getCustomer().getEmail().equals(customer.getEmail()))
-                list.add(r);
-        }
-        return list;
+    // Bulk load of a consistent history (e.g. a snapshot) into rooms that have no bookings yet.
+    // Each room's calendar and each customer's index are built in one go, rooms and customers
+    // in parallel, rather than booking the reservations one by one.
+    void restoreReservations(Reservation[] history) {
+        Map<String, List<Reservation>> byRoom = Arrays.stream(history).parallel()
+                .collect(Collectors.groupingByConcurrent(r -> r.getRoom().getRoomNumber()));
+        byRoom.entrySet().parallelStream().forEach(entry -> {
+            List<Reservation> stays = entry.getValue();
+            stays.sort(Comparator.comparingInt(Reservation::getCheckInDay));
+            int[] checkIns = new int[stays.size()];
+            int[] checkOuts = new int[stays.size()];
+            for (int i = 0; i < checkIns.length; i++) {
+                checkIns[i] = stays.get(i).getCheckInDay();
+                checkOuts[i] = stays.get(i).getCheckOutDay();
+            }
+            calendarOf(entry.getKey()).set(RoomCalendar.of(originDay, checkIns, checkOuts));
+        });
+
+        Map<String, List<Reservation>> byCustomer = Arrays.stream(history).parallel()
+                .collect(Collectors.groupingByConcurrent(r -> r.getCustomer().getEmail()));
+        byCustomer.entrySet().parallelStream().forEach(entry -> reservationsByCustomer
+                .computeIfAbsent(entry.getKey(), k -> new ConcurrentSkipListSet<>(BY_CHECK_IN))
+                .addAll(entry.getValue()));
+
+        reservations.addAll(Arrays.asList(history));
+        occupancy.addAll(history);
+        revenue.addAll(history);
     }
 
+    // archived stays first, then current and future ones by check-in
     public void showAllReservations() {
-        if (reservations.isEmpty()) {
+        if (reservations.hotSize() == 0 && reservations.archivedSize() == 0) {
             System.out.println("No reservations found.");
             return;
         }
-        reservations.forEach(System.out::println);
+        reservations.archived().forEach(System.out::println);
+        reservations.hot().forEach(System.out::println);
     }
 
 
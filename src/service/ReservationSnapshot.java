@@ -0,0 +1,146 @@
+package service;
+
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact binary image of all customers, rooms and reservations, read back through a
+// memory-mapped buffer. Layout (big-endian):
+//   magic, version, customer count, room count, reservation count
+//   customers:    email, first name, last name
+//   rooms:        kind, number, price, type ordinal
+//   reservations: customer index, room index, check-in day, check-out day
+// Strings are an unsigned short byte length followed by UTF-8.
+public final class ReservationSnapshot {
+
+    private static final int MAGIC = 0x48525331; // "HRS1"
+    private static final int VERSION = 1;
+
+    private static final byte PLAIN_ROOM = 0;
+    private static final byte FREE_ROOM = 1;
+
+    private ReservationSnapshot() {}
+
+    // written to a temporary file first, so a crash never leaves a half-written snapshot behind
+    public static void write(Path file, CustomerService customerService,
+                             ReservationService reservationService) throws IOException {
+        List<Customer> customers = new ArrayList<>(customerService.listAllCustomers());
+        List<IRoom> rooms = new ArrayList<>(reservationService.listAllRooms());
+        List<Reservation> reservations = new ArrayList<>(reservationService.allReservations());
+
+        Map<String, Integer> customerIndex = new HashMap<>();
+        Map<String, Integer> roomIndex = new HashMap<>();
+        for (Customer c : customers) customerIndex.put(c.getEmail(), customerIndex.size());
+        for (IRoom r : rooms) roomIndex.put(r.getRoomNumber(), roomIndex.size());
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(customers.size());
+            out.writeInt(rooms.size());
+            out.writeInt(reservations.size());
+
+            for (Customer c : customers) {
+                writeString(out, c.getEmail());
+                writeString(out, c.getFirstName());
+                writeString(out, c.getLastName());
+            }
+            for (IRoom r : rooms) {
+                out.writeByte(r instanceof FreeRoom ? FREE_ROOM : PLAIN_ROOM);
+                writeString(out, r.getRoomNumber());
+                out.writeDouble(r.getRoomPrice() == null ? 0.0 : r.getRoomPrice());
+                out.writeByte(r.getRoomType().ordinal());
+            }
+            for (Reservation res : reservations) {
+                out.writeInt(customerIndex.get(res.getCustomer().getEmail()));
+                out.writeInt(roomIndex.get(res.getRoom().getRoomNumber()));
+                out.writeInt(res.getCheckInDay());
+                out.writeInt(res.getCheckOutDay());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Loads a snapshot into empty services, before a journal is attached. Room calendars
+    // and the customer index are built in bulk, in parallel, instead of booking the history
+    // one reservation at a time. Returns false if there is no snapshot file.
+    public static boolean load(Path file, CustomerService customerService,
+                               ReservationService reservationService) throws IOException {
+        if (!Files.exists(file)) return false;
+
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.remaining() < 20 || in.getInt() != MAGIC) {
+            throw new IOException("Not a reservation snapshot: " + file);
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + " in " + file);
+        }
+        Customer[] customers = new Customer[in.getInt()];
+        IRoom[] rooms = new IRoom[in.getInt()];
+        Reservation[] reservations = new Reservation[in.getInt()];
+
+        for (int i = 0; i < customers.length; i++) {
+            String email = readString(in);
+            String firstName = readString(in);
+            String lastName = readString(in);
+            customerService.registerCustomer(email, firstName, lastName);
+            customers[i] = customerService.fetchCustomer(email);
+        }
+        RoomType[] types = RoomType.values();
+        for (int i = 0; i < rooms.length; i++) {
+            byte kind = in.get();
+            String number = readString(in);
+            double price = in.getDouble();
+            RoomType type = types[in.get()];
+            rooms[i] = kind == FREE_ROOM ? new FreeRoom(number, type) : new Room(number, price, type);
+            reservationService.registerRoom(rooms[i]);
+        }
+        for (int i = 0; i < reservations.length; i++) {
+            Customer customer = customers[in.getInt()];
+            IRoom room = rooms[in.getInt()];
+            reservations[i] = new Reservation(customer, room, in.getInt(), in.getInt());
+        }
+        reservationService.restoreReservations(reservations);
+        return true;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
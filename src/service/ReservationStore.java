@@ -0,0 +1,113 @@
+package service;
+
+import model.Reservation;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// All reservations, split by time. Current and future stays live in one hot partition per
+// check-in month; stays that have ended are moved by archiveEndedBy into a cold archive that
+// only history and reporting read. Everything is lock-free, so archiving never holds up a
+// booking.
+final class ReservationStore {
+
+    private final Comparator<Reservation> order;
+    // months since 0000-01 -> stays checking in that month
+    private final ConcurrentSkipListMap<Integer, NavigableSet<Reservation>> partitions = new ConcurrentSkipListMap<>();
+    private final Queue<Reservation> archive = new ConcurrentLinkedQueue<>();
+    // customer email -> that customer's archived stays
+    private final Map<String, NavigableSet<Reservation>> archiveByCustomer = new ConcurrentHashMap<>();
+    private final LongAdder hotCount = new LongAdder();
+    private final LongAdder archivedCount = new LongAdder();
+
+    ReservationStore(Comparator<Reservation> order) {
+        this.order = order;
+    }
+
+    static int monthOf(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    void add(Reservation res) {
+        if (partitions.computeIfAbsent(monthOf(res.getCheckInDay()), k -> new ConcurrentSkipListSet<>(order)).add(res)) {
+            hotCount.increment();
+        }
+    }
+
+    void addAll(Collection<Reservation> stays) {
+        for (Reservation res : stays) add(res);
+    }
+
+    void remove(Reservation res) {
+        NavigableSet<Reservation> partition = partitions.get(monthOf(res.getCheckInDay()));
+        if (partition != null && partition.remove(res)) hotCount.decrement();
+    }
+
+    // Moves every hot stay that checked out on or before day into the archive and returns them.
+    // A stay is only moved once claim accepts it, which keeps a stay that is being cancelled
+    // at the same moment out of the archive. Only months up to day's can hold such stays;
+    // emptied months before it are dropped.
+    List<Reservation> archiveEndedBy(int day, Predicate<Reservation> claim) {
+        List<Reservation> moved = new ArrayList<>();
+        int currentMonth = monthOf(day);
+        for (Map.Entry<Integer, NavigableSet<Reservation>> entry : partitions.headMap(currentMonth, true).entrySet()) {
+            NavigableSet<Reservation> partition = entry.getValue();
+            for (Iterator<Reservation> it = partition.iterator(); it.hasNext(); ) {
+                Reservation res = it.next();
+                if (res.getCheckOutDay() > day || !claim.test(res)) continue;
+                archive.add(res);
+                archiveByCustomer
+                        .computeIfAbsent(res.getCustomer().getEmail(), k -> new ConcurrentSkipListSet<>(order))
+                        .add(res);
+                archivedCount.increment();
+                if (partition.remove(res)) hotCount.decrement();
+                moved.add(res);
+            }
+            if (entry.getKey() < currentMonth && partition.isEmpty()) partitions.remove(entry.getKey(), partition);
+        }
+        return moved;
+    }
+
+    // hot stays in check-in order
+    Stream<Reservation> hot() {
+        return partitions.values().stream().flatMap(Collection::stream);
+    }
+
+    // archived stays in the order they were archived
+    Stream<Reservation> archived() {
+        return archive.stream();
+    }
+
+    Collection<Reservation> archivedFor(String email) {
+        NavigableSet<Reservation> own = archiveByCustomer.get(email);
+        return own == null ? Collections.emptySet() : own;
+    }
+
+    long hotSize() {
+        return hotCount.sum();
+    }
+
+    long archivedSize() {
+        return archivedCount.sum();
+    }
+
+    int partitionCount() {
+        return partitions.size();
+    }
+}
@@ -0,0 +1,140 @@
+package service;
+
+import model.Reservation;
+import model.RoomType;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Revenue in cents, added up as stays are booked and taken back out when they are cancelled
+// or moved, so a report over any range is two prefix sums rather than a pass over the
+// history. Each night's revenue is the nightly price of every room occupied that night; it
+// is kept in Fenwick trees with range add and range sum, for all rooms and per room type.
+// Customers just keep a running total. Nights span the same range as OccupancyIndex, and
+// bookings only queue their changes; see DeferredIndex.
+final class RevenueIndex extends DeferredIndex {
+
+    // Fenwick trees over the difference array of per-night revenue: with d[k] the change
+    // starting on night k, the revenue of nights [0, n) is n * sum(d[k]) - sum(k * d[k])
+    // over k < n, so both sums are kept. Like the occupancy counters they only cover the
+    // aligned window of nights [base, base + size), allocated on the first stay and doubled
+    // as stays fall outside it; d[k] is zero outside the window.
+    private static final class NightRevenue {
+        private int base;
+        private int size;
+        // 1-based over the window
+        private long[] changes;
+        private long[] weighted;
+
+        void add(int from, int to, long cents) {
+            // the change at to must be inside too, unless it is past every night counted
+            cover(from, Math.min(to + 1, OccupancyIndex.DAYS));
+            update(from, cents);
+            update(to, -cents);
+        }
+
+        private void cover(int from, int to) {
+            if (changes == null) {
+                size = OccupancyIndex.FIRST_WINDOW;
+                while (from / size != (to - 1) / size) size *= 2;
+                base = from / size * size;
+                changes = new long[size + 1];
+                weighted = new long[size + 1];
+            }
+            while (from < base || to > base + size) grow();
+        }
+
+        // doubles the window; the trees are taken back to their differences and rebuilt
+        // around them at their new offset, both in linear time
+        private void grow() {
+            int newBase = base / (2 * size) * (2 * size);
+            changes = rebuilt(changes, base - newBase);
+            weighted = rebuilt(weighted, base - newBase);
+            base = newBase;
+            size *= 2;
+        }
+
+        private static long[] rebuilt(long[] tree, int shift) {
+            int n = tree.length - 1;
+            for (int i = n; i > 0; i--) {
+                int parent = i + (i & -i);
+                if (parent <= n) tree[parent] -= tree[i];
+            }
+            long[] grown = new long[2 * n + 1];
+            System.arraycopy(tree, 1, grown, 1 + shift, n);
+            for (int i = 1; i <= 2 * n; i++) {
+                int parent = i + (i & -i);
+                if (parent <= 2 * n) grown[parent] += grown[i];
+            }
+            return grown;
+        }
+
+        private void update(int night, long cents) {
+            for (int i = night - base + 1; i <= size; i += i & -i) {
+                changes[i] += cents;
+                weighted[i] += cents * night;
+            }
+        }
+
+        long sum(int from, int to) {
+            return prefix(to) - prefix(from);
+        }
+
+        // revenue of nights [0, nights)
+        private long prefix(int nights) {
+            long total = 0;
+            long totalWeighted = 0;
+            for (int i = Math.min(nights, base + size) - base; i > 0; i -= i & -i) {
+                total += changes[i];
+                totalWeighted += weighted[i];
+            }
+            return total * nights - totalWeighted;
+        }
+    }
+
+    private final NightRevenue all = new NightRevenue();
+    // created on the first stay of each type
+    private final Map<RoomType, NightRevenue> byType = new EnumMap<>(RoomType.class);
+    // customer email -> revenue from that customer's stays
+    private final Map<String, Long> byCustomer = new HashMap<>();
+
+    @Override
+    void apply(Reservation res, int sign) {
+        long nightly = sign * res.getRoom().getRoomPriceCents();
+        long nights = res.getCheckOutDay() - res.getCheckInDay();
+        byCustomer.merge(res.getCustomer().getEmail(), nightly * nights, Long::sum);
+
+        int from = clip(res.getCheckInDay());
+        int to = clip(res.getCheckOutDay());
+        if (from >= to || nightly == 0) return;
+        all.add(from, to, nightly);
+        byType.computeIfAbsent(res.getRoom().getRoomType(), k -> new NightRevenue()).add(from, to, nightly);
+    }
+
+    // revenue of the nights [fromDay, toDay) for the type, or all rooms for null
+    long revenue(int fromDay, int toDay, RoomType type) {
+        lock();
+        try {
+            NightRevenue counter = type == null ? all : byType.get(type);
+            int from = clip(fromDay);
+            int to = clip(toDay);
+            return counter == null || from >= to ? 0 : counter.sum(from, to);
+        } finally {
+            unlock();
+        }
+    }
+
+    long revenueFrom(String email) {
+        lock();
+        try {
+            return byCustomer.getOrDefault(email, 0L);
+        } finally {
+            unlock();
+        }
+    }
+
+    private static int clip(int day) {
+        return Math.max(0, Math.min(OccupancyIndex.DAYS, day - OccupancyIndex.FIRST_DAY));
+    }
+}
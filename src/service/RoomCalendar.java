@@ -0,0 +1,174 @@
+package service;
+
+import java.util.Arrays;
+
+// Immutable availability snapshot of a single room: its stays sorted by check-in day
+// (the free gaps are the spaces between neighbours) plus an occupancy bitmap with one
+// bit per night of the bookable horizon. Booking builds a new version with with().
+final class RoomCalendar {
+
+    // nights covered by the bitmap: a year of bookable check-ins plus a year of stay
+    static final int HORIZON_DAYS = 2 * 365;
+    static final int NO_SLOT = Integer.MIN_VALUE;
+
+    private static final int[] NONE = new int[0];
+
+    private final int originDay;
+    private final long[] occupied;
+    // stays never overlap, so both arrays are sorted
+    private final int[] checkIns;
+    private final int[] checkOuts;
+
+    RoomCalendar(int originDay) {
+        this(originDay, new long[(HORIZON_DAYS + 63) >>> 6], NONE, NONE);
+    }
+
+    // calendar for stays already sorted by check-in and known not to overlap
+    static RoomCalendar of(int originDay, int[] checkIns, int[] checkOuts) {
+        long[] bits = new long[(HORIZON_DAYS + 63) >>> 6];
+        for (int i = 0; i < checkIns.length; i++) {
+            markOccupied(bits, originDay, checkIns[i], checkOuts[i]);
+        }
+        return new RoomCalendar(originDay, bits, checkIns, checkOuts);
+    }
+
+    private RoomCalendar(int originDay, long[] occupied, int[] checkIns, int[] checkOuts) {
+        this.originDay = originDay;
+        this.occupied = occupied;
+        this.checkIns = checkIns;
+        this.checkOuts = checkOuts;
+    }
+
+    // true if no night in [checkInDay, checkOutDay) is taken
+    boolean isFree(int checkInDay, int checkOutDay) {
+        if (inHorizon(checkInDay, checkOutDay)) {
+            return !anySet(checkInDay - originDay, checkOutDay - originDay);
+        }
+        // outside the bitmap: the first stay still running after check-in must start at or after check-out
+        int next = firstEndingAfter(checkInDay);
+        return next == checkIns.length || checkIns[next] >= checkOutDay;
+    }
+
+    // earliest start in [fromDay, lastStartDay] of a free run of length nights, or NO_SLOT
+    int earliestFreeStart(int fromDay, int lastStartDay, int length) {
+        int candidate = fromDay;
+        for (int next = firstEndingAfter(fromDay); candidate <= lastStartDay; next++) {
+            if (next == checkIns.length || checkIns[next] - candidate >= length) return candidate;
+            // gap too short (or candidate inside this stay): try right after the stay
+            candidate = checkOuts[next];
+        }
+        return NO_SLOT;
+    }
+
+    // new version with [checkInDay, checkOutDay) booked; caller has checked isFree
+    RoomCalendar with(int checkInDay, int checkOutDay) {
+        int at = firstEndingAfter(checkInDay);
+        int[] ins = insert(checkIns, at, checkInDay);
+        int[] outs = insert(checkOuts, at, checkOutDay);
+
+        long[] bits = occupied.clone();
+        markOccupied(bits, originDay, checkInDay, checkOutDay);
+        return new RoomCalendar(originDay, bits, ins, outs);
+    }
+
+    // sets the bits of the nights that fall inside the horizon
+    private static void markOccupied(long[] bits, int originDay, int checkInDay, int checkOutDay) {
+        int from = Math.max(checkInDay, originDay) - originDay;
+        int to = Math.min(checkOutDay, originDay + HORIZON_DAYS) - originDay;
+        if (from < to) setRange(bits, from, to);
+    }
+
+    // new version without the stay checking in on checkInDay, or null if there is none
+    RoomCalendar without(int checkInDay) {
+        int at = firstEndingAfter(checkInDay);
+        if (at == checkIns.length || checkIns[at] != checkInDay) return null;
+        int checkOutDay = checkOuts[at];
+
+        long[] bits = occupied.clone();
+        int from = Math.max(checkInDay, originDay) - originDay;
+        int to = Math.min(checkOutDay, originDay + HORIZON_DAYS) - originDay;
+        if (from < to) clearRange(bits, from, to);
+        return new RoomCalendar(originDay, bits, remove(checkIns, at), remove(checkOuts, at));
+    }
+
+    // New version without the stays that ended by day, its bitmap now starting at day;
+    // this one if there is nothing to drop and it already starts there
+    RoomCalendar compactedTo(int day) {
+        int keep = firstEndingAfter(day);
+        if (keep == 0 && originDay == day) return this;
+        return of(day, Arrays.copyOfRange(checkIns, keep, checkIns.length),
+                Arrays.copyOfRange(checkOuts, keep, checkOuts.length));
+    }
+
+    private boolean inHorizon(int checkInDay, int checkOutDay) {
+        return checkInDay >= originDay && checkOutDay <= originDay + HORIZON_DAYS;
+    }
+
+    // index of the first stay checking out after day
+    private int firstEndingAfter(int day) {
+        int low = 0;
+        int high = checkOuts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (checkOuts[mid] <= day) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static int[] insert(int[] values, int at, int value) {
+        int[] copy = Arrays.copyOf(values, values.length + 1);
+        System.arraycopy(values, at, copy, at + 1, values.length - at);
+        copy[at] = value;
+        return copy;
+    }
+
+    private static int[] remove(int[] values, int at) {
+        int[] copy = new int[values.length - 1];
+        System.arraycopy(values, 0, copy, 0, at);
+        System.arraycopy(values, at + 1, copy, at, values.length - at - 1);
+        return copy;
+    }
+
+    // bit ranges are [from, to) and never empty
+    private boolean anySet(int from, int to) {
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) return (occupied[first] & firstMask & lastMask) != 0;
+        if ((occupied[first] & firstMask) != 0) return true;
+        for (int w = first + 1; w < last; w++) {
+            if (occupied[w] != 0) return true;
+        }
+        return (occupied[last] & lastMask) != 0;
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            bits[first] |= firstMask & lastMask;
+            return;
+        }
+        bits[first] |= firstMask;
+        for (int w = first + 1; w < last; w++) bits[w] = -1L;
+        bits[last] |= lastMask;
+    }
+
+    private static void clearRange(long[] bits, int from, int to) {
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            bits[first] &= ~(firstMask & lastMask);
+            return;
+        }
+        bits[first] &= ~firstMask;
+        for (int w = first + 1; w < last; w++) bits[w] = 0L;
+        bits[last] &= ~lastMask;
+    }
+}
@@ -0,0 +1,312 @@
+package service;
+
+import model.FreeRoom;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The room inventory as columns. Every room gets a dense int id in registration order; its
+// number, price in cents, type and flags sit at that index in parallel arrays, next to its
+// calendar, and a number -> id hash table finds it. Nothing per room is an object except the
+// number and the calendar, so filtered scans walk primitive arrays front to back. IRoom
+// objects are only made on demand, as plain Room / FreeRoom views. Prices are kept in whole
+// cents and shown as cents / 100.0, which is why registerRoom turns down fractions of a cent.
+//
+// Columns live in fixed-size chunks that are never copied, so growing the store never moves
+// a calendar another thread is swapping. Rooms are only ever added, one at a time under the
+// lock; readers take no lock: a room is visible once count covers its id, and count is
+// written last.
+final class RoomStore {
+
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // passes the free-room filter: a zero price or IRoom.isFree()
+    private static final byte FREE = 1;
+    // registered with a null price
+    private static final byte NO_PRICE = 2;
+    // registered as a FreeRoom, and shown as one
+    private static final byte FREE_ROOM = 4;
+    private static final RoomType[] TYPES = RoomType.values();
+
+    private static final class Chunk {
+        final String[] numbers = new String[CHUNK_SIZE];
+        final long[] priceCents = new long[CHUNK_SIZE];
+        // RoomType ordinal
+        final byte[] types = new byte[CHUNK_SIZE];
+        final byte[] flags = new byte[CHUNK_SIZE];
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final AtomicReference<RoomCalendar>[] calendars = new AtomicReference[CHUNK_SIZE];
+    }
+
+    // ids in some order, built for the first count rooms
+    private static final class Order {
+        final int count;
+        final int[] ids;
+
+        Order(int count, int[] ids) {
+            this.count = count;
+            this.ids = ids;
+        }
+    }
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    // id + 1 at the slot the number hashes to, or the next free one after it; 0 is empty.
+    // Kept at most half full, so a probe always ends.
+    private volatile int[] table = new int[64];
+    private volatile int count;
+    // held while a room is added
+    private final ReentrantLock adding = new ReentrantLock();
+    // brought up to date on the first use after rooms were added
+    private volatile Order byNumber = new Order(0, new int[0]);
+    private volatile Order byPrice = new Order(0, new int[0]);
+
+    // The new room's id, or -1 if its number is taken. accepted runs once the number is known
+    // to be free and before the room is visible; if it throws, the room is not added. A lock
+    // rather than a monitor, since accepted may block a virtual thread on a journal fsync.
+    int add(IRoom room, RoomCalendar calendar, Runnable accepted) {
+        adding.lock();
+        try {
+            String number = room.getRoomNumber();
+            if (idOf(number) >= 0) return -1;
+            accepted.run();
+            int id = count;
+            if (id >>> CHUNK_BITS == chunks.length) {
+                Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+                grown[chunks.length] = new Chunk();
+                chunks = grown;
+            }
+            Chunk chunk = chunks[id >>> CHUNK_BITS];
+            int at = id & CHUNK_MASK;
+            Double price = room.getRoomPrice();
+            chunk.numbers[at] = number;
+            chunk.priceCents[at] = room.getRoomPriceCents();
+            chunk.types[at] = (byte) room.getRoomType().ordinal();
+            chunk.flags[at] = (price != null && price == 0.0) || room.isFree() ? FREE : 0;
+            if (price == null) chunk.flags[at] |= NO_PRICE;
+            if (room instanceof FreeRoom) chunk.flags[at] |= FREE_ROOM;
+            chunk.calendars[at] = new AtomicReference<>(calendar);
+
+            if (2 * (id + 1) > table.length) table = rehash(2 * table.length, id);
+            insert(table, number, id);
+            count = id + 1;
+            return id;
+        } finally {
+            adding.unlock();
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    // -1 if no room has the number
+    int idOf(String number) {
+        int[] t = table;
+        int n = count;
+        for (int i = spread(number.hashCode()) & (t.length - 1); ; i = (i + 1) & (t.length - 1)) {
+            int id = t[i] - 1;
+            if (id < 0) return -1;
+            // a slot past count belongs to a room still being added
+            if (id < n && number.equals(number(id))) return id;
+        }
+    }
+
+    String number(int id) {
+        return chunks[id >>> CHUNK_BITS].numbers[id & CHUNK_MASK];
+    }
+
+    long priceCents(int id) {
+        return chunks[id >>> CHUNK_BITS].priceCents[id & CHUNK_MASK];
+    }
+
+    AtomicReference<RoomCalendar> calendar(int id) {
+        return chunks[id >>> CHUNK_BITS].calendars[id & CHUNK_MASK];
+    }
+
+    // a fresh IRoom for the id; equal to the room registered under it
+    IRoom room(int id) {
+        Chunk chunk = chunks[id >>> CHUNK_BITS];
+        int at = id & CHUNK_MASK;
+        RoomType type = TYPES[chunk.types[at]];
+        if ((chunk.flags[at] & FREE_ROOM) != 0) return new FreeRoom(chunk.numbers[at], type);
+        Double price = (chunk.flags[at] & NO_PRICE) != 0 ? null : chunk.priceCents[at] / 100.0;
+        return new Room(chunk.numbers[at], price, type);
+    }
+
+    // Null filters mean "any"; prices are inclusive and compared in cents.
+    boolean matches(int id, Boolean onlyFree, RoomType type, Double minPrice, Double maxPrice) {
+        Chunk chunk = chunks[id >>> CHUNK_BITS];
+        int at = id & CHUNK_MASK;
+        if (onlyFree != null && onlyFree != ((chunk.flags[at] & FREE) != 0)) return false;
+        if (type != null && chunk.types[at] != type.ordinal()) return false;
+        long price = chunk.priceCents[at];
+        if (minPrice != null && price < toCents(minPrice)) return false;
+        return maxPrice == null || price <= toCents(maxPrice);
+    }
+
+    // Ids of the rooms passing the filters. A price band is cut out of the price order by
+    // binary search and comes back cheapest first; otherwise the type and free columns are
+    // scanned chunk by chunk and ids come back in registration order.
+    int[] select(Boolean onlyFree, RoomType type, Double minPrice, Double maxPrice) {
+        if (minPrice != null || maxPrice != null) {
+            int[] ids = byPrice();
+            long low = minPrice == null ? Long.MIN_VALUE : toCents(minPrice);
+            long high = maxPrice == null ? Long.MAX_VALUE : toCents(maxPrice);
+            if (low > high) return new int[0];
+            int from = firstPricedAtLeast(ids, low);
+            int to = high == Long.MAX_VALUE ? ids.length : firstPricedAtLeast(ids, high + 1);
+            int[] selected = new int[Math.max(0, to - from)];
+            int found = 0;
+            for (int i = from; i < to; i++) {
+                if (matches(ids[i], onlyFree, type, minPrice, maxPrice)) selected[found++] = ids[i];
+            }
+            return Arrays.copyOf(selected, found);
+        }
+
+        int n = count;
+        Chunk[] all = chunks;
+        int[] selected = new int[onlyFree == null && type == null ? n : Math.min(n, 1024)];
+        int found = 0;
+        byte wantedType = type == null ? 0 : (byte) type.ordinal();
+        for (int c = 0; c << CHUNK_BITS < n; c++) {
+            Chunk chunk = all[c];
+            int base = c << CHUNK_BITS;
+            int end = Math.min(CHUNK_SIZE, n - base);
+            for (int at = 0; at < end; at++) {
+                if (type != null && chunk.types[at] != wantedType) continue;
+                if (onlyFree != null && onlyFree != ((chunk.flags[at] & FREE) != 0)) continue;
+                if (found == selected.length) selected = Arrays.copyOf(selected, Math.min(n, 2 * found));
+                selected[found++] = base + at;
+            }
+        }
+        return found == selected.length ? selected : Arrays.copyOf(selected, found);
+    }
+
+    // Every id, by room number. Rooms added since the last call are sorted on their own and
+    // merged into the previous order, so a new room costs a merge rather than a full sort.
+    int[] byNumber() {
+        Order order = byNumber;
+        int n = count;
+        if (order.count >= n) return order.ids;
+        int[] added = new int[n - order.count];
+        for (int i = 0; i < added.length; i++) added[i] = order.count + i;
+        sortByNumber(added, new int[added.length], 0, added.length);
+        int[] ids = new int[n];
+        mergeByNumber(order.ids, 0, order.count, added, 0, added.length, ids, 0);
+        byNumber = new Order(n, ids);
+        return ids;
+    }
+
+    // Every id, cheapest first; equal prices in registration order. Kept up to date the same
+    // way as byNumber.
+    int[] byPrice() {
+        Order order = byPrice;
+        int n = count;
+        if (order.count >= n) return order.ids;
+        long[] added = new long[n - order.count];
+        for (int i = 0; i < added.length; i++) added[i] = priceKey(order.count + i);
+        Arrays.sort(added);
+        int[] previous = order.ids;
+        int[] ids = new int[n];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < n; k++) {
+            if (j == added.length || (i < previous.length && priceKey(previous[i]) < added[j])) ids[k] = previous[i++];
+            else ids[k] = (int) added[j++];
+        }
+        byPrice = new Order(n, ids);
+        return ids;
+    }
+
+    // index in ids (by number) of the first room numbered after number
+    int firstAfter(int[] ids, String number) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (number(ids[mid]).compareTo(number) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // a price filter in cents, rounded the same way room prices are
+    static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    // index in ids (by price) of the first room at cents or more, by sort key
+    private int firstPricedAtLeast(int[] ids, long cents) {
+        long key = sortablePrice(cents);
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortablePrice(priceCents(ids[mid])) < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // sorts ids[from, to) by room number; a merge sort on the ints themselves, nothing boxed
+    private void sortByNumber(int[] ids, int[] scratch, int from, int to) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                int id = ids[i];
+                String number = number(id);
+                int j = i;
+                for (; j > from && number(ids[j - 1]).compareTo(number) > 0; j--) ids[j] = ids[j - 1];
+                ids[j] = id;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        sortByNumber(ids, scratch, from, mid);
+        sortByNumber(ids, scratch, mid, to);
+        if (number(ids[mid - 1]).compareTo(number(ids[mid])) < 0) return;
+        System.arraycopy(ids, from, scratch, from, to - from);
+        mergeByNumber(scratch, from, mid, scratch, mid, to, ids, from);
+    }
+
+    // merges a[aFrom, aTo) and b[bFrom, bTo), both by room number, into into from at
+    private void mergeByNumber(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, int[] into, int at) {
+        while (aFrom < aTo && bFrom < bTo) {
+            into[at++] = number(a[aFrom]).compareTo(number(b[bFrom])) < 0 ? a[aFrom++] : b[bFrom++];
+        }
+        System.arraycopy(a, aFrom, into, at, aTo - aFrom);
+        System.arraycopy(b, bFrom, into, at + aTo - aFrom, bTo - bFrom);
+    }
+
+    // price and id in one long, so a primitive sort does it; prices beyond what fits in
+    // 32 bits sort as the largest (or smallest), and select still checks the exact price
+    private long priceKey(int id) {
+        return (sortablePrice(priceCents(id)) << 32) | id;
+    }
+
+    private static long sortablePrice(long cents) {
+        return Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, cents));
+    }
+
+    private int[] rehash(int length, int rooms) {
+        int[] grown = new int[length];
+        for (int id = 0; id < rooms; id++) insert(grown, number(id), id);
+        return grown;
+    }
+
+    private static void insert(int[] t, String number, int id) {
+        int i = spread(number.hashCode()) & (t.length - 1);
+        while (t[i] != 0) i = (i + 1) & (t.length - 1);
+        t[i] = id + 1;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,20 +1,29 @@
 package ui;
 
 import api.AdminResource;
-import model.Customer;
+import model.EpochDays;
 import model.IRoom;
+import model.OccupancyReport;
+import model.Page;
+import model.RevenueReport;
 import model.Room;
 import model.RoomType;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Scanner;
+import java.util.function.Function;
 
 public class AdminMenu {
 
     private static final Scanner scanner = new Scanner(System.in);
     private static final AdminResource admin = AdminResource.getInstance();
+    // customers and rooms are listed this many at a time
+    private static final int PAGE_SIZE = 20;
 
     public static void display() {
         boolean running = true;
@@ -25,22 +34,23 @@ public class AdminMenu {
             System.out.println("3. See all Reservations");
             System.out.println("4. Add a Room");
             System.out.println("5. Populate Test Data");
-            System.out.println("6. Back to Main Menu");
+            System.out.println("6. Performance Metrics");
+            System.out.println("7. Archive Past Reservations");
+            System.out.println("8. Occupancy Report");
+            System.out.println("9. Revenue Report");
+            System.out.println("10. Back to Main Menu");
             System.out.print("Please select a number: ");
             String choice = scanner.nextLine();
             switch (choice) {
                 case "1":
-                    Collection<?> customers = admin.listCustomers();
-                    if (customers.isEmpty()) System.out.println("No customers found.");
-                    else customers.forEach(System.out::println);
+                    printPaged(cursor -> admin.listCustomersPage(cursor, PAGE_SIZE), "No customers found.");
                     break;
                 case "2":
-                    Collection<IRoom> rooms = admin.listRooms();
-                    if (rooms.isEmpty()) System.out.println("No rooms found.");
-                    else rooms.forEach(System.out::println);
+                    printPaged(cursor -> admin.listRoomsPage(cursor, PAGE_SIZE), "No rooms found.");
                     break;
                 case "3":
                     admin.displayReservations();
+                    System.out.println(admin.getReservationSummary());
                     break;
                 case "4":
                     addRoomMenu();
@@ -51,14 +61,10 @@ public class AdminMenu {
                     System.out.println("Customer ,Rooms ,Reservations  after populating test data:");
 
                     System.out.println("\n--- Customers ---");
-                    for (Customer c : admin.listCustomers()) {
-                        System.out.println(c);
-                    }
+                    printPaged(cursor -> admin.listCustomersPage(cursor, PAGE_SIZE), "No customers found.");
 
                     System.out.println("\n--- Rooms ---");
-                    for (IRoom r : admin.listRooms()) {
-                        System.out.println(r);
-                    }
+                    printPaged(cursor -> admin.listRoomsPage(cursor, PAGE_SIZE), "No rooms found.");
 
                     System.out.println("\n--- Reservations ---");
                     admin.displayReservations();
@@ -66,6 +72,19 @@ public class AdminMenu {
 
                     break;
                 case "6":
+                    showMetrics();
+                    break;
+                case "7":
+                    System.out.println(admin.compactReservations() + " reservations archived.");
+                    System.out.println(admin.getReservationSummary());
+                    break;
+                case "8":
+                    occupancyReport();
+                    break;
+                case "9":
+                    revenueReport();
+                    break;
+                case "10":
                     running = false;
                     break;
                 default:
@@ -76,6 +95,89 @@ public class AdminMenu {
 
 
 
+    // prints a listing page by page, asking before each further page
+    private static void printPaged(Function<String, Page<?>> fetch, String emptyMessage) {
+        Page<?> page = fetch.apply(null);
+        if (page.getItems().isEmpty()) {
+            System.out.println(emptyMessage);
+            return;
+        }
+        while (true) {
+            page.getItems().forEach(System.out::println);
+            if (!page.hasMore()) return;
+            System.out.print("Press Enter for more, or 'Q' to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("Q")) return;
+            page = fetch.apply(page.getNextCursor());
+        }
+    }
+
+    private static void showMetrics() {
+        System.out.println(admin.getMetricsReport());
+
+        System.out.print("Write a JSON dump to file (path, or Enter to skip): ");
+        String path = scanner.nextLine().trim();
+        if (path.isEmpty()) return;
+
+        try {
+            Files.writeString(Paths.get(path), admin.getMetricsJson());
+            System.out.println("Metrics written to " + path);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error: Could not write metrics: " + e.getMessage());
+        }
+    }
+
+    // occupancy of a date range for all rooms and each room type; past ranges are allowed
+    private static void occupancyReport() {
+        Date from = readDate("From date (yyyy-MM-dd): ");
+        if (from == null) return;
+        Date to = readDate("To date, exclusive (yyyy-MM-dd): ");
+        if (to == null) return;
+        if (!from.before(to)) {
+            System.out.println("Error: To date must be after from date.");
+            return;
+        }
+
+        OccupancyReport all = admin.getOccupancyReport(from, to, null);
+        System.out.println(all);
+        for (RoomType type : RoomType.values()) System.out.println(admin.getOccupancyReport(from, to, type));
+    }
+
+    // revenue of a date range for all rooms and each room type, and optionally one customer's total
+    private static void revenueReport() {
+        Date from = readDate("From date (yyyy-MM-dd): ");
+        if (from == null) return;
+        Date to = readDate("To date, exclusive (yyyy-MM-dd): ");
+        if (to == null) return;
+        if (!from.before(to)) {
+            System.out.println("Error: To date must be after from date.");
+            return;
+        }
+
+        System.out.println(admin.getRevenueReport(from, to, null));
+        for (RoomType type : RoomType.values()) System.out.println(admin.getRevenueReport(from, to, type));
+
+        System.out.print("Customer email for their total (or Enter to skip): ");
+        String email = scanner.nextLine().trim();
+        if (email.isEmpty()) return;
+        if (admin.retrieveCustomer(email) == null) {
+            System.out.println("Error: No customer with email " + email + ".");
+            return;
+        }
+        System.out.println(email + ": " + RevenueReport.formatCents(admin.getCustomerRevenueCents(email)));
+    }
+
+    private static Date readDate(String prompt) {
+        System.out.print(prompt);
+        String input = scanner.nextLine().trim();
+        // strict yyyy-MM-dd, like the booking menu
+        int epochDay = EpochDays.parse(input);
+        if (epochDay == EpochDays.NOT_A_DATE) {
+            System.out.println("Error: Invalid date " + input + ". Please use yyyy-MM-dd format.");
+            return null;
+        }
+        return EpochDays.toDate(epochDay);
+    }
+
     private static void addRoomMenu() {
         List<IRoom> roomsToAdd = new ArrayList<>();
         boolean adding = true;
@@ -137,6 +239,10 @@ public class AdminMenu {
                         System.out.println("Error: Price cannot be negative.");
                         continue;
                     }
+                    if (Math.round(price * 100) / 100.0 != price) {
+                        System.out.println("Error: Price cannot have fractions of a cent.");
+                        continue;
+                    }
                     break; // Valid price
                 } catch (Exception e) {
                     System.out.println("Invalid price. Please enter a valid numeric value.");
@@ -2,23 +2,20 @@ package ui;
 
 import api.HotelResource;
 import model.Customer;
+import model.EpochDays;
 import model.IRoom;
+import model.Page;
 import model.Reservation;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.*;
 
 public class MainMenu {
 
     private static final Scanner scanner = new Scanner(System.in);
     private static final HotelResource hotel = HotelResource.getInstance();
-    private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-
-    // Initialize dateFormat with strict parsing
-    static {
-        dateFormat.setLenient(false); // Reject invalid dates
-    }
+    // available rooms are listed this many at a time
+    private static final int PAGE_SIZE = 20;
 
     public static void display() {
         boolean running = true;
@@ -27,9 +24,10 @@ public class MainMenu {
             System.out.println("\n===== MAIN MENU =====");
             System.out.println("1. Find and reserve a room");
             System.out.println("2. View my reservations");
-            System.out.println("3. Create a new account");
-            System.out.println("4. Admin options");
-            System.out.println("5. Exit");
+            System.out.println("3. Cancel or change a reservation");
+            System.out.println("4. Create a new account");
+            System.out.println("5. Admin options");
+            System.out.println("6. Exit");
             System.out.print("Please Select an option: ");
 
             String choice = scanner.nextLine().trim();
@@ -42,12 +40,15 @@ public class MainMenu {
                     viewReservations();
                     break;
                 case "3":
-                    createAccount();
+                    manageReservation();
                     break;
                 case "4":
-                    AdminMenu.display();
+                    createAccount();
                     break;
                 case "5":
+                    AdminMenu.display();
+                    break;
+                case "6":
                     running = false;
                     System.out.println("Thank you for using the reservation system.");
                     break;
@@ -59,51 +60,27 @@ public class MainMenu {
 
 
     private static Date parseAndValidateDate(String dateStr, String fieldName) {
-        try {
-            // First try raw parsing
-            Date parsedDate = dateFormat.parse(dateStr);
-
-            // Extract year, month, day manually
-            String[] parts = dateStr.split("-");
-            int year = Integer.parseInt(parts[0]);
-            int month = Integer.parseInt(parts[1]);
-            int day = Integer.parseInt(parts[2]);
-
-            // FEBRUARY SPECIAL VALIDATION
-            if (month == 2) {
-
-                boolean isLeap = (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
-                int maxFebDays = isLeap ? 29 : 28;
-
-                if (day > maxFebDays) {
-                    System.out.println("Error: February in " + year +
-                            " cannot have more than " + maxFebDays + " days.");
-                    return null;
-                }
-            }
-
-            // Reject past dates
-            Calendar today = Calendar.getInstance();
-            today.set(Calendar.HOUR_OF_DAY, 0);
-            today.set(Calendar.MINUTE, 0);
-            today.set(Calendar.SECOND, 0);
-            today.set(Calendar.MILLISECOND, 0);
-            Date currentDate = today.getTime();
-
-            if (parsedDate.before(currentDate)) {
-                System.out.println("Error: " + fieldName +
-                        " cannot be in the past. Please enter a current or future date.");
-                return null;
-            }
-
-            return parsedDate;
-
-        } catch (Exception e) {
+        // strict yyyy-MM-dd, which also rejects days the month does not have
+        int epochDay = EpochDays.parse(dateStr);
+        if (epochDay == EpochDays.NOT_A_DATE) {
             System.out.println("Error: Invalid date format for " + fieldName + ".");
             System.out.println("Please use yyyy-MM-dd format (e.g., 2025-12-25)");
             System.out.println("Note: Month must be 01–12 and date must be valid for the given month.");
             return null;
         }
+
+        // Reject past dates
+        if (epochDay < EpochDays.today()) {
+            System.out.println("Error: " + fieldName +
+                    " cannot be in the past. Please enter a current or future date.");
+            return null;
+        }
+
+        return EpochDays.toDate(epochDay);
+    }
+
+    private static String isoDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
     }
 
 
@@ -173,16 +150,23 @@ public class MainMenu {
             }
         }
 
-        //  SEARCH ROOMS
-        Collection<IRoom> availableRooms =
-                hotel.searchRooms(checkIn, checkOut, dayWindow, onlyFree);
+        //  SEARCH ROOMS, one page at a time
+        Page<IRoom> availableRooms =
+                hotel.searchRoomsPage(checkIn, checkOut, onlyFree, null, PAGE_SIZE);
 
-        if (!availableRooms.isEmpty()) {
+        if (!availableRooms.getItems().isEmpty()) {
             System.out.println("\nAvailable rooms for your dates:");
-            availableRooms.forEach(System.out::println);
-
-            System.out.print("Enter a room number to reserve (or 'N' to cancel): ");
-            String selection = scanner.nextLine().trim();
+            String selection;
+            while (true) {
+                availableRooms.getItems().forEach(System.out::println);
+                System.out.print(availableRooms.hasMore()
+                        ? "Enter a room number to reserve, 'M' for more rooms (or 'N' to cancel): "
+                        : "Enter a room number to reserve (or 'N' to cancel): ");
+                selection = scanner.nextLine().trim();
+                if (!availableRooms.hasMore() || !selection.equalsIgnoreCase("M")) break;
+                availableRooms = hotel.searchRoomsPage(checkIn, checkOut, onlyFree,
+                        availableRooms.getNextCursor(), PAGE_SIZE);
+            }
 
             if (selection.equalsIgnoreCase("N")) return;
 
@@ -221,8 +205,8 @@ public class MainMenu {
                 }
 
                 System.out.println("\nSuggested dates for Room " + roomSelected.getRoomNumber() + ":");
-                System.out.println("  Available from: " + dateFormat.format(alt[0]) +
-                        " to " + dateFormat.format(alt[1]));
+                System.out.println("  Available from: " + isoDate(EpochDays.of(alt[0])) +
+                        " to " + isoDate(EpochDays.of(alt[1])));
 
                 System.out.print("Would you like to book these suggested dates? (y/n): ");
                 String ans = scanner.nextLine().trim();
@@ -266,8 +250,8 @@ public class MainMenu {
         for (Map.Entry<IRoom, Date[]> entry : list) {
             System.out.println(idx + ". " + entry.getKey());
             System.out.println("   Available from: " +
-                    dateFormat.format(entry.getValue()[0]) + " to " +
-                    dateFormat.format(entry.getValue()[1]));
+                    isoDate(EpochDays.of(entry.getValue()[0])) + " to " +
+                    isoDate(EpochDays.of(entry.getValue()[1])));
             idx++;
         }
 
@@ -330,6 +314,87 @@ public class MainMenu {
         }
     }
 
+    private static void manageReservation() {
+        System.out.print("Enter your email: ");
+        String email = scanner.nextLine().trim().toLowerCase();
+
+        List<Reservation> reservations = new ArrayList<>(hotel.getCustomerReservations(email));
+        if (reservations.isEmpty()) {
+            System.out.println("You have no reservations.");
+            return;
+        }
+
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation r = reservations.get(i);
+            System.out.println((i + 1) + ". Room " + r.getRoom().getRoomNumber() + ": "
+                    + isoDate(r.getCheckInDay()) + " to " + isoDate(r.getCheckOutDay()));
+        }
+
+        System.out.print("Enter the number of the reservation (or 'N' to go back): ");
+        String pickInput = scanner.nextLine().trim();
+        if (pickInput.equalsIgnoreCase("N")) return;
+
+        Reservation chosen;
+        try {
+            int pick = Integer.parseInt(pickInput);
+            if (pick < 1 || pick > reservations.size()) {
+                System.out.println("Invalid selection.");
+                return;
+            }
+            chosen = reservations.get(pick - 1);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid input.");
+            return;
+        }
+
+        System.out.print("(C)ancel it or (M)ove it to other dates or another room? ");
+        String action = scanner.nextLine().trim();
+
+        if (action.equalsIgnoreCase("C")) {
+            Reservation cancelled = hotel.cancelReservation(email, chosen.getRoom(), chosen.getCheckInDate());
+            System.out.println(cancelled == null ? "Could not cancel the reservation." : "Reservation cancelled.");
+            return;
+        }
+        if (!action.equalsIgnoreCase("M")) {
+            System.out.println("Invalid selection.");
+            return;
+        }
+
+        Date checkIn = null;
+        Date checkOut = null;
+        while (checkIn == null) {
+            System.out.print("Enter new check-in date (yyyy-MM-dd): ");
+            checkIn = parseAndValidateDate(scanner.nextLine().trim(), "Check-in date");
+        }
+        while (checkOut == null) {
+            System.out.print("Enter new check-out date (yyyy-MM-dd): ");
+            checkOut = parseAndValidateDate(scanner.nextLine().trim(), "Check-out date");
+
+            if (checkOut != null && !checkIn.before(checkOut)) {
+                System.out.println("Error: Check-out date must be after check-in date.");
+                checkOut = null;
+            }
+        }
+
+        System.out.print("Enter a new room number (or press Enter to keep Room "
+                + chosen.getRoom().getRoomNumber() + "): ");
+        String roomInput = scanner.nextLine().trim();
+        IRoom newRoom = roomInput.isEmpty() ? chosen.getRoom() : hotel.getRoomByNumber(roomInput);
+        if (newRoom == null) {
+            System.out.println("Invalid room number.");
+            return;
+        }
+
+        Reservation modified = hotel.modifyReservation(email, chosen.getRoom(), chosen.getCheckInDate(),
+                newRoom, checkIn, checkOut);
+        if (modified == null) {
+            System.out.println("Your reservation was not changed.");
+        } else {
+            System.out.println("Reservation updated!");
+            System.out.println(modified);
+        }
+    }
+
     private static void createAccount() {
         String email;
         boolean valid = false;